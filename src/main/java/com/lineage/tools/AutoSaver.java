@@ -0,0 +1,183 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import javax.swing.SwingUtilities;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+// Saves a manager in the background once editing has paused. Every edit pushes
+// the save back by the quiet period, so a burst of edits ends in one write;
+// while edits keep coming the save still runs after MAX_DEFERRALS quiet periods.
+// Saves run one at a time on a single writer thread and never on the EDT.
+//
+// The writer never reads the live model. When the quiet period is over the
+// saver takes a snapshot on the EDT (the list, the dirty entries and the edit
+// they were made by) and only that snapshot is written. If the edit version
+// moved while writing, another save is scheduled for the newer edits; a save
+// that failed is retried, waiting one more quiet period after every failure.
+public class AutoSaver<S> implements AutoCloseable {
+
+    public static final long DEFAULT_QUIET_MILLIS = 2000;
+    private static final int MAX_DEFERRALS = 5;
+
+    public interface Saver<S> {
+        // On the EDT; null when there is nothing to save
+        S snapshot() throws Exception;
+
+        // On the writer thread
+        void save(S snapshot) throws Exception;
+    }
+
+    private final ScheduledExecutorService writer;
+    private final Saver<S> saver;
+    private final LongSupplier version;
+    private final Consumer<Exception> onError;
+    private final Runnable onSaved;
+    private volatile long quietMillis;
+
+    private ScheduledFuture<?> pending;
+    // Bumped by every schedule and pause, so only the latest snapshot request runs
+    private long ticket;
+    private long firstEdit;
+    private int failures;
+    private boolean paused;
+
+    // onSaved is called on the writer thread, onError on the writer thread or the EDT
+    public AutoSaver(String name, long quietMillis, LongSupplier version, Saver<S> saver,
+                     Runnable onSaved, Consumer<Exception> onError) {
+        this.quietMillis = quietMillis;
+        this.version = version;
+        this.saver = saver;
+        this.onSaved = onSaved;
+        this.onError = onError;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public long getQuietMillis() { return quietMillis; }
+    public void setQuietMillis(long quietMillis) { this.quietMillis = quietMillis; }
+
+    // Call after every edit
+    public synchronized void edited() {
+        if (paused) return;
+        long now = System.currentTimeMillis();
+        if (pending == null) {
+            firstEdit = now;
+        } else {
+            pending.cancel(false);
+        }
+        long delay = quietMillis;
+        long deadline = firstEdit + quietMillis * MAX_DEFERRALS;
+        if (now + delay > deadline) {
+            delay = Math.max(0, deadline - now);
+        }
+        schedule(delay);
+    }
+
+    // Must be called before the model is replaced or filled by a load, so a
+    // half-loaded model is never written. Drops a scheduled save.
+    public synchronized void pause() {
+        paused = true;
+        ticket++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    public synchronized void resume() {
+        paused = false;
+    }
+
+    // Quiet period over: the snapshot is taken on the EDT, between two edits
+    private void schedule(long delay) {
+        long t = ++ticket;
+        pending = writer.schedule(() -> SwingUtilities.invokeLater(() -> snapshot(t)), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void snapshot(long t) {
+        synchronized (this) {
+            if (paused || t != ticket) return;
+            pending = null;
+        }
+        long before = version.getAsLong();
+        S snapshot;
+        try {
+            snapshot = saver.snapshot();
+        } catch (Exception e) {
+            failed(e);
+            return;
+        }
+        if (snapshot != null) {
+            writer.execute(() -> write(snapshot, before));
+        }
+    }
+
+    private void write(S snapshot, long before) {
+        try {
+            saver.save(snapshot);
+        } catch (Exception e) {
+            failed(e);
+            return;
+        }
+        synchronized (this) {
+            failures = 0;
+            if (version.getAsLong() != before && pending == null && !paused) {
+                // Edited while writing: those edits are not in the snapshot
+                firstEdit = System.currentTimeMillis();
+                schedule(quietMillis);
+            }
+        }
+        onSaved.run();
+    }
+
+    // Retried like an edit, one more quiet period later after every failure
+    private void failed(Exception e) {
+        onError.accept(e);
+        synchronized (this) {
+            failures = Math.min(failures + 1, MAX_DEFERRALS);
+            if (pending == null && !paused) {
+                schedule(quietMillis * failures);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (pending != null) pending.cancel(false);
+            pending = null;
+            ticket++;
+        }
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.swing.SwingUtilities;
+
+// Tells the open editor windows which ids of a manager were added, removed or
+// updated. Edits are collected into one ModelChange and handed out on the EDT
+// once per event-queue turn, so a batch of edits (a load batch, a journal
+// replay, several windows editing) costs each window one update.
+public class ChangeBus {
+
+    @FunctionalInterface
+    public interface Listener {
+        void changed(ModelChange change);
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Guarded by this; non-null while a dispatch is queued
+    private ModelChange pending;
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // row: where the id was added to or removed from the manager's list
+    public synchronized void added(int id, int row) {
+        if (listening()) pending().noteAdded(id, row);
+    }
+
+    public synchronized void removed(int id, int row) {
+        if (listening()) pending().noteRemoved(id, row);
+    }
+
+    public synchronized void updated(int id) {
+        if (listening()) pending().noteUpdated(id);
+    }
+
+    public synchronized void reset() {
+        if (listening()) pending().noteReset();
+    }
+
+    // No window on this manager (a benchmark, the workspace before any opens):
+    // nothing to collect, and no reason to start the EDT
+    private boolean listening() {
+        return !listeners.isEmpty();
+    }
+
+    private ModelChange pending() {
+        if (pending == null) {
+            pending = new ModelChange();
+            SwingUtilities.invokeLater(this::dispatch);
+        }
+        return pending;
+    }
+
+    private void dispatch() {
+        ModelChange change;
+        synchronized (this) {
+            change = pending;
+            pending = null;
+        }
+        if (change.isEmpty()) return;
+        for (Listener listener : listeners) {
+            listener.changed(change);
+        }
+    }
+}
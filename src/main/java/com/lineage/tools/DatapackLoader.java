@@ -0,0 +1,101 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Helpers for split datapacks (e.g. stats/skills/00000-00099.xml, 00100-00199.xml, ...).
+// Every file is parsed on its own virtual thread, so opening a folder takes about
+// as long as its largest file.
+public class DatapackLoader {
+
+    @FunctionalInterface
+    public interface FileParser<T> {
+        List<T> parse(File file) throws Exception;
+    }
+
+    private DatapackLoader() {}
+
+    // All *.xml files below the directory, in name order (the id-range order of the datapack)
+    public static List<File> listXmlFiles(File dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().toLowerCase().endsWith(".xml"))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Absolute, normalized form used as the identity of a source file
+    public static File normalize(File file) {
+        return file.toPath().toAbsolutePath().normalize().toFile();
+    }
+
+    // Parses all files in parallel. Results are returned in the same order as the files.
+    public static <T> List<List<T>> parseAll(List<File> files, FileParser<T> parser) throws Exception {
+        return parseAll(files, parser, null);
+    }
+
+    // Same, also handing each file's result to onParsed (on the calling thread, in
+    // file order) as soon as it and all files before it are done
+    public static <T> List<List<T>> parseAll(List<File> files, FileParser<T> parser,
+                                             Consumer<List<T>> onParsed) throws Exception {
+        List<Future<List<T>>> futures = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (File file : files) {
+                futures.add(executor.submit(() -> parser.parse(file)));
+            }
+
+            List<List<T>> results = new ArrayList<>(files.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    throw new IOException(files.get(i).getName() + ": " + e.getCause().getMessage(), e.getCause());
+                } catch (InterruptedException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    throw e;
+                }
+                if (onParsed != null) {
+                    onParsed.accept(results.get(i));
+                }
+            }
+            return results;
+        }
+    }
+}
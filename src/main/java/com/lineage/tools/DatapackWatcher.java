@@ -0,0 +1,125 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Watches the source files of a loaded datapack and reports which of them changed
+// on disk (git checkout, external text editor, ...). Editors usually write a file
+// in several steps, so events are collected until the folder has been quiet for
+// QUIET_MILLIS and each changed file is reported once.
+public class DatapackWatcher implements AutoCloseable {
+
+    private static final long QUIET_MILLIS = 150;
+
+    @FunctionalInterface
+    public interface Listener {
+        // Called on the watcher thread
+        void fileChanged(File file);
+    }
+
+    private final WatchService watchService;
+    private final Set<Path> watchedFiles = new HashSet<>();
+    private final Listener listener;
+    private final Thread thread;
+
+    public DatapackWatcher(Collection<File> files, Listener listener) throws IOException {
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        Set<Path> dirs = new HashSet<>();
+        for (File file : files) {
+            Path path = file.toPath().toAbsolutePath().normalize();
+            watchedFiles.add(path);
+            dirs.add(path.getParent());
+        }
+        for (Path dir : dirs) {
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        }
+
+        thread = new Thread(this::run, "datapack-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collect(key, changed);
+                    key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                for (Path path : changed) {
+                    try {
+                        listener.fileChanged(path.toFile());
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Too many events to tell which files changed: report all of them
+                changed.addAll(watchedFiles);
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (watchedFiles.contains(path)) {
+                changed.add(path);
+            }
+        }
+        key.reset();
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,374 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+// Write-ahead log of the edits made since the last save, next to what was
+// loaded (".skills.xml.journal", or ".skills.journal" for a datapack folder).
+// Every edit is appended as one record holding the whole new state of the
+// object (ModelCodec), so replaying is idempotent and order is all that
+// matters. Records are written right away and forced to disk in batches, at
+// most SYNC_DELAY_MS after the first unsynced one. A torn record at the end
+// (crash while appending) fails its CRC and is dropped on the next open.
+//
+// The header holds the snapshot key of every source file the records were
+// made against. When the files no longer match (edited elsewhere, replaced
+// by a checkout) the records are not replayed; the journal is moved aside
+// to ".journal.stale" and a new one started.
+//
+// Header: [int magic][int version][int files]{[utf path][long size][long lastModified][long hash]}
+// Record: [int length][int crc32c][payload], payload = [byte kind][fields]
+public class EditJournal implements AutoCloseable {
+
+    public static final byte SKILL_PUT = 1;
+    public static final byte SKILL_REMOVE = 2;
+    public static final byte ITEM_PUT = 3;
+    public static final byte ITEM_REMOVE = 4;
+    public static final byte SKILL_TREE_PUT = 5;
+    public static final byte SKILL_TREE_REMOVE = 6;
+
+    private static final int MAGIC = 0x4C324A52; // "L2JR"
+    private static final int VERSION = 2;
+    private static final int MAX_RECORD = 64 << 20;
+    private static final long SYNC_DELAY_MS = 200;
+
+    private static final ScheduledExecutorService SYNC = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "journal-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // One replayed edit: value is the new Skill/Item/SkillTreeClass, or null for a removal
+    public record Entry(byte kind, int id, Object value, File sourceFile) {}
+
+    private final File file;
+    private FileChannel channel;
+    private final List<Entry> recovered;
+    private long headerEnd;
+    private boolean syncPending;
+
+    private EditJournal(File file, FileChannel channel, long headerEnd, List<Entry> recovered) {
+        this.file = file;
+        this.channel = channel;
+        this.headerEnd = headerEnd;
+        this.recovered = recovered;
+    }
+
+    public static File journalFile(File source) {
+        File absolute = source.getAbsoluteFile();
+        return new File(absolute.getParentFile(), "." + absolute.getName() + ".journal");
+    }
+
+    // Opens (or creates) the journal of a source and reads back what it holds.
+    // keys are the snapshot keys of the source files as just loaded.
+    public static EditJournal open(File source, Map<File, SnapshotCache.Key> keys) throws IOException {
+        File file = journalFile(source);
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            List<Entry> recovered = new ArrayList<>();
+            Map<File, SnapshotCache.Key> written = new HashMap<>();
+            long end = recover(channel, written, recovered);
+            boolean current = end >= 0 && sameFiles(written, keys);
+            if (!current && (end >= 0 ? !recovered.isEmpty() : channel.size() > 0)) {
+                // Edits made on other file contents (or in another format): keep them aside
+                File stale = new File(file.getPath() + ".stale");
+                System.err.println("Not replaying " + file + ", the source files changed since it was written;"
+                    + " moved to " + stale);
+                channel.close();
+                Files.move(file.toPath(), stale.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            long headerEnd;
+            if (!current) {
+                // New, empty, foreign or stale file: start over
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.wrap(header(keys));
+                while (header.hasRemaining()) channel.write(header, header.position());
+                channel.force(false);
+                end = headerEnd = header.limit();
+                recovered.clear();
+            } else {
+                headerEnd = header(written).length;
+                if (end < channel.size()) {
+                    System.err.println("Dropping torn tail of " + file + " at " + end);
+                    channel.truncate(end);
+                    channel.force(false);
+                }
+            }
+            channel.position(end);
+            return new EditJournal(file, channel, headerEnd, recovered);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Reads the header and every intact record. Returns the end of the last
+    // good record, or -1 when the file has no valid header.
+    private static long recover(FileChannel channel, Map<File, SnapshotCache.Key> keys,
+                                List<Entry> recovered) throws IOException {
+        long size = channel.size();
+        if (size < 12) return -1;
+        ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE - 8));
+        while (bytes.hasRemaining() && channel.read(bytes, bytes.position()) > 0) {}
+        bytes.flip();
+        if (bytes.getInt() != MAGIC || bytes.getInt() != VERSION) return -1;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.array(), 8, bytes.limit() - 8));
+            int files = in.readInt();
+            for (int i = 0; i < files; i++) {
+                File source = new File(in.readUTF());
+                keys.put(source, new SnapshotCache.Key(in.readLong(), in.readLong(), in.readLong()));
+            }
+            bytes.position(bytes.limit() - in.available());
+        } catch (IOException e) {
+            return -1;
+        }
+
+        long end = bytes.position();
+        CRC32C crc = new CRC32C();
+        while (bytes.remaining() >= 8) {
+            int length = bytes.getInt();
+            int checksum = bytes.getInt();
+            if (length <= 0 || length > MAX_RECORD || length > bytes.remaining()) break;
+            byte[] payload = new byte[length];
+            bytes.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) break;
+            try {
+                recovered.add(decode(payload));
+            } catch (IOException | RuntimeException e) {
+                break;
+            }
+            end = bytes.position();
+        }
+        return end;
+    }
+
+    private static byte[] header(Map<File, SnapshotCache.Key> keys) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + keys.size() * 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(keys.size());
+        for (Map.Entry<File, SnapshotCache.Key> entry : keys.entrySet()) {
+            out.writeUTF(entry.getKey().getPath());
+            out.writeLong(entry.getValue().size());
+            out.writeLong(entry.getValue().lastModified());
+            out.writeLong(entry.getValue().hash());
+        }
+        return bytes.toByteArray();
+    }
+
+    // Same files with the same content; a touched but unchanged file still matches
+    private static boolean sameFiles(Map<File, SnapshotCache.Key> written, Map<File, SnapshotCache.Key> keys) {
+        if (written.size() != keys.size()) return false;
+        for (Map.Entry<File, SnapshotCache.Key> entry : keys.entrySet()) {
+            SnapshotCache.Key key = written.get(entry.getKey());
+            if (key == null || key.size() != entry.getValue().size() || key.hash() != entry.getValue().hash()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Entry decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        ModelCodec codec = new ModelCodec();
+        byte kind = in.readByte();
+        return switch (kind) {
+            case SKILL_PUT -> {
+                File source = readFile(in);
+                Skill skill = codec.readSkill(in);
+                skill.setSourceFile(source);
+                yield new Entry(kind, skill.getSkillId(), skill, source);
+            }
+            case ITEM_PUT -> {
+                File source = readFile(in);
+                Item item = codec.readItem(in);
+                item.setSourceFile(source);
+                yield new Entry(kind, item.getItemId(), item, source);
+            }
+            case SKILL_TREE_PUT -> {
+                SkillTreeClass tree = codec.readSkillTree(in);
+                yield new Entry(kind, tree.getClassId(), tree, null);
+            }
+            case SKILL_REMOVE, ITEM_REMOVE, SKILL_TREE_REMOVE -> new Entry(kind, in.readInt(), null, null);
+            default -> throw new IOException("Unknown journal record " + kind);
+        };
+    }
+
+    private static File readFile(DataInputStream in) throws IOException {
+        String path = in.readUTF();
+        return path.isEmpty() ? null : new File(path);
+    }
+
+    private static void writeFile(DataOutputStream out, File file) throws IOException {
+        out.writeUTF(file != null ? file.getPath() : "");
+    }
+
+    public File getFile() { return file; }
+
+    // Edits found when the journal was opened, oldest first
+    public List<Entry> getRecovered() { return recovered; }
+
+    // ========== APPEND ==========
+
+    public void putSkill(Skill skill) {
+        append(SKILL_PUT, out -> {
+            writeFile(out, skill.getSourceFile());
+            new ModelCodec().writeSkill(out, skill);
+        });
+    }
+
+    public void removeSkill(int skillId) {
+        append(SKILL_REMOVE, out -> out.writeInt(skillId));
+    }
+
+    public void putItem(Item item) {
+        append(ITEM_PUT, out -> {
+            writeFile(out, item.getSourceFile());
+            new ModelCodec().writeItem(out, item);
+        });
+    }
+
+    public void removeItem(int itemId) {
+        append(ITEM_REMOVE, out -> out.writeInt(itemId));
+    }
+
+    public void putSkillTree(SkillTreeClass tree) {
+        append(SKILL_TREE_PUT, out -> new ModelCodec().writeSkillTree(out, tree));
+    }
+
+    public void removeSkillTree(int classId) {
+        append(SKILL_TREE_REMOVE, out -> out.writeInt(classId));
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Like the snapshot cache, a journal that cannot be written does not stop
+    // editing; the edit is still in memory and the problem is reported
+    private synchronized void append(byte kind, Body body) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(kind);
+            body.write(out);
+            byte[] payload = bytes.toByteArray();
+
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            ByteBuffer record = ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+            while (record.hasRemaining()) channel.write(record);
+
+            if (!syncPending) {
+                syncPending = true;
+                SYNC.schedule(this::sync, SYNC_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not append to journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Forces everything appended so far to disk
+    public synchronized void sync() {
+        if (!syncPending || !channel.isOpen()) return;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Could not sync journal " + file + ": " + e.getMessage());
+        }
+        syncPending = false;
+    }
+
+    // ========== CHECKPOINT ==========
+
+    // Position to pass to discard once the edits up to here are saved
+    public synchronized long mark() throws IOException {
+        return channel.position();
+    }
+
+    // Drops the records before mark; records appended since (edits made while
+    // the save was running) are kept. keys are the source files as they are
+    // now, which the kept records apply to. The new journal is written next to
+    // the old one and renamed over it, so a crash leaves one or the other.
+    public synchronized void discard(long mark, Map<File, SnapshotCache.Key> keys) throws IOException {
+        long end = channel.position();
+        ByteBuffer tail = ByteBuffer.allocate((int) (end - mark));
+        while (tail.hasRemaining() && channel.read(tail, mark + tail.position()) > 0) {}
+        tail.flip();
+        byte[] header = header(keys);
+        channel.close();
+        try {
+            ModelXmlWriter.replace(file, out -> {
+                ByteBuffer bytes = ByteBuffer.allocate(header.length + tail.remaining()).put(header).put(tail).flip();
+                while (bytes.hasRemaining()) out.write(bytes);
+                return bytes.limit();
+            });
+        } finally {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        headerEnd = header.length;
+        syncPending = false;
+        recovered.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) return;
+        sync();
+        boolean empty = channel.size() <= headerEnd;
+        channel.close();
+        if (empty) {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Stand-alone benchmark for the load/save paths, run from the command line:
+//   java -cp LineageSkillEditor.jar com.lineage.tools.EditorBenchmark [skills]
+// Generates a synthetic skills file (50,000 skills by default) in a temp folder.
+// Figures are only comparable between runs on the same JDK, which is printed first.
+public class EditorBenchmark {
+
+    private static final int WARMUP = 3;
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        System.out.printf("Java %s (%s)%n", Runtime.version(), System.getProperty("java.vm.name"));
+
+        File dir = Files.createTempDirectory("skill-bench").toFile();
+        File xml = new File(dir, "skills.xml");
+        generateSkills(xml, count);
+        System.out.printf("Generated %,d skills (%,d KB) in %s%n", count, xml.length() / 1024, xml);
+
+        benchmarkSnapshot(xml, count);
+        benchmarkSave(xml, count);
+        benchmarkLookup(100_000);
+        benchmarkIds(100_000);
+    }
+
+    // ========== SNAPSHOT ==========
+
+    private static void benchmarkSnapshot(File xml, int count) throws Exception {
+        double parse = measure("XML parse (StAX)", () -> {
+            List<Skill> skills = new SkillXmlReader().read(xml);
+            check(skills.size() == count);
+        });
+
+        List<Skill> skills = new SkillXmlReader().read(xml);
+        StringPool strings = new StringPool();
+        skills.forEach(strings::dedupe);
+        System.out.println(strings.report());
+        SnapshotCache.Key key = SnapshotCache.key(xml);
+        SnapshotCache.storeSkills(xml, key, skills, false);
+        System.out.printf("Snapshot size: %,d KB%n", SnapshotCache.snapshotFile(xml).length() / 1024);
+
+        double snapshot = measure("Snapshot load (key + read)", () -> {
+            List<Skill> loaded = SnapshotCache.loadSkills(xml, SnapshotCache.key(xml), false);
+            check(loaded != null && loaded.size() == count);
+        });
+
+        System.out.printf("Snapshot load is %.1fx faster than a cold parse%n", parse / snapshot);
+    }
+
+    // ========== SAVE ==========
+
+    private static void benchmarkSave(File xml, int count) throws Exception {
+        SkillManager manager = new SkillManager();
+        manager.setSkills(new SkillXmlReader().read(xml));
+        File jaxbOut = new File(xml.getParentFile(), "save-jaxb.xml");
+        File streamOut = new File(xml.getParentFile(), "save-stream.xml");
+
+        JAXBContext context = JAXBContext.newInstance(SkillManager.class);
+        double jaxb = measure("Save (JAXB marshaller)", () -> {
+            Marshaller marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+            marshaller.marshal(manager, jaxbOut);
+        });
+        double stream = measure("Save (ModelXmlWriter)", () -> {
+            ModelXmlWriter.writeSkills(streamOut, manager.getSkills());
+        });
+
+        double mb = streamOut.length() / (1024.0 * 1024.0);
+        System.out.printf("Save throughput: JAXB %.1f MB/s, writer %.1f MB/s (%.1fx)%n",
+            mb / (jaxb / 1000), mb / (stream / 1000), jaxb / stream);
+        check(Arrays.equals(Files.readAllBytes(jaxbOut.toPath()), Files.readAllBytes(streamOut.toPath())));
+        check(new SkillXmlReader().read(streamOut).size() == count);
+    }
+
+    // ========== LOOKUP ==========
+
+    // findSkillById over the id index against the linear scan it replaced
+    private static void benchmarkLookup(int count) throws Exception {
+        SkillManager manager = new SkillManager();
+        List<Skill> skills = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Skill skill = new Skill();
+            skill.setSkillId(id * 3);
+            skills.add(skill);
+        }
+        manager.setSkills(skills);
+
+        int scans = 1_000;
+        int lookups = 1_000_000;
+        int[] ids = new Random(42).ints(lookups, 1, count * 3 + 1).toArray();
+        long[] found = new long[1];
+
+        double scan = measure("Lookup (linear scan) x" + scans, () -> {
+            for (int i = 0; i < scans; i++) {
+                int id = ids[i];
+                Skill skill = skills.stream().filter(s -> s.getSkillId() == id).findFirst().orElse(null);
+                if (skill != null) found[0]++;
+            }
+        });
+        double indexed = measure("Lookup (IntIndex) x" + lookups, () -> {
+            for (int id : ids) {
+                if (manager.findSkillById(id) != null) found[0]++;
+            }
+        });
+        check(found[0] > 0);
+
+        double scanNs = scan * 1_000_000 / scans;
+        double indexedNs = indexed * 1_000_000 / lookups;
+        System.out.printf("Lookup over %,d skills: scan %.0f ns, index %.1f ns (%.0fx)%n",
+            count, scanNs, indexedNs, scanNs / indexedNs);
+    }
+
+    // ========== IDS ==========
+
+    // New/Clone ids from IdAllocator against the max scan they replaced, and a
+    // reserve / allocate / release round trip
+    private static void benchmarkIds(int count) throws Exception {
+        SkillManager manager = new SkillManager();
+        List<Skill> skills = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Skill skill = new Skill();
+            // Ids 1..count with a gap of 100 after every 1000th skill
+            skill.setSkillId(id + (id / 1000) * 100);
+            skills.add(skill);
+        }
+        manager.setSkills(skills);
+
+        int allocations = 1_000;
+        long[] sum = new long[1];
+        double scan = measure("Next id (max scan) x" + allocations, () -> {
+            for (int i = 0; i < allocations; i++) {
+                sum[0] += skills.stream().mapToInt(Skill::getSkillId).max().orElse(0) + 1;
+            }
+        });
+        double bitmap = measure("Next id (IdAllocator) x" + allocations, () -> {
+            for (int i = 0; i < allocations; i++) {
+                sum[0] += manager.getNextSkillId();
+            }
+        });
+        check(sum[0] > 0);
+        System.out.printf("Next id over %,d skills: scan %.0f ns, bitmap %.1f ns%n",
+            count, scan * 1_000_000 / allocations, bitmap * 1_000_000 / allocations);
+
+        int highest = skills.get(count - 1).getSkillId();
+        check(manager.getNextSkillId() == highest + 1);
+        // The first gap is 1000..1099
+        check(manager.findFreeSkillId(1, highest) == 1000);
+        check(manager.findFreeSkillId(1000, 1099) == 1000);
+        check(manager.findFreeSkillId(1, 999) == -1);
+
+        // A block of 50 goes into the first gap, a second one next to it, and one
+        // larger than any gap past the highest id
+        int first = manager.reserveSkillIds(50, 1, Integer.MAX_VALUE);
+        int second = manager.reserveSkillIds(50, 1, Integer.MAX_VALUE);
+        int large = manager.reserveSkillIds(500, 1, Integer.MAX_VALUE);
+        check(first == 1000 && second == 1050 && large == highest + 1);
+        check(manager.findFreeSkillId(1000, 1099) == -1);
+        check(manager.reserveSkillIds(101, 1, highest) == -1);
+        check(manager.getNextSkillId() == highest + 501);
+
+        // Allocating inside a reservation does not free it when the skill goes
+        Skill imported = new Skill();
+        imported.setSkillId(first);
+        manager.addSkill(imported);
+        manager.removeSkill(imported);
+        check(manager.findFreeSkillId(1000, 1099) == -1);
+
+        manager.releaseSkillIds(second, 50);
+        check(manager.findFreeSkillId(1000, 1099) == 1050);
+        manager.releaseSkillIds(large, 500);
+        check(manager.getNextSkillId() == highest + 1);
+        manager.releaseSkillIds(first, 50);
+        check(manager.findFreeSkillId(1, highest) == 1000);
+        System.out.println("Id reservations: ok");
+    }
+
+    // ========== HELPERS ==========
+
+    @FunctionalInterface
+    interface Task {
+        void run() throws Exception;
+    }
+
+    // Returns the median time in milliseconds
+    static double measure(String name, Task task) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            task.run();
+        }
+        double[] times = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        double median = times[RUNS / 2];
+        System.out.printf("%-32s %10.1f ms (min %.1f, max %.1f)%n", name, median, times[0], times[RUNS - 1]);
+        return median;
+    }
+
+    static void check(boolean condition) {
+        if (!condition) throw new IllegalStateException("Benchmark sanity check failed");
+    }
+
+    static void generateSkills(File file, int count) throws Exception {
+        String[] operateTypes = {"A1", "A2", "A3", "P", "T"};
+        String[] targetTypes = {"TARGET_ONE", "TARGET_SELF", "TARGET_AREA", "TARGET_PARTY"};
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<list>");
+            for (int id = 1; id <= count; id++) {
+                int levels = 1 + id % 10;
+                out.printf("\t<skill id=\"%d\" levels=\"%d\" name=\"Skill %d\"%s>%n", id, levels, id,
+                    id % 7 == 0 ? " enchantGroup1=\"" + (id % 3 + 1) + "\"" : "");
+                StringBuilder power = new StringBuilder();
+                StringBuilder mp = new StringBuilder();
+                for (int lvl = 1; lvl <= levels; lvl++) {
+                    if (lvl > 1) {
+                        power.append(' ');
+                        mp.append(' ');
+                    }
+                    power.append(10 + lvl * 7 + id % 13);
+                    mp.append(lvl * 3);
+                }
+                out.printf("\t\t<table name=\"#power\">%s</table>%n", power);
+                out.printf("\t\t<table name=\"#mpConsume\">%s</table>%n", mp);
+                out.printf("\t\t<set name=\"magicLvl\" val=\"%d\" />%n", 1 + id % 85);
+                out.println("\t\t<set name=\"mpConsume\" val=\"#mpConsume\" />");
+                out.println("\t\t<set name=\"power\" val=\"#power\" />");
+                out.printf("\t\t<set name=\"operateType\" val=\"%s\" />%n", operateTypes[id % operateTypes.length]);
+                out.printf("\t\t<set name=\"targetType\" val=\"%s\" />%n", targetTypes[id % targetTypes.length]);
+                out.printf("\t\t<set name=\"reuseDelay\" val=\"%d\" />%n", 1000 * (id % 30));
+                out.println("\t\t<set name=\"castRange\" val=\"400\" />");
+                if (id % 3 == 0) {
+                    out.println("\t\t<conditions msgId=\"113\" addName=\"1\">");
+                    out.println("\t\t\t<and>");
+                    out.println("\t\t\t\t<using kind=\"Sword,Blunt\" />");
+                    out.println("\t\t\t\t<player hp=\"50\" />");
+                    out.println("\t\t\t</and>");
+                    out.println("\t\t</conditions>");
+                }
+                out.println("\t\t<effects>");
+                out.println("\t\t\t<effect name=\"Buff\">");
+                out.println("\t\t\t\t<param stat=\"pAtk\" val=\"#power\" time=\"1200\" />");
+                out.println("\t\t\t\t<mul stat=\"pAtk\" val=\"1.1\" />");
+                out.println("\t\t\t\t<add stat=\"pDef\" val=\"#power\" />");
+                out.println("\t\t\t</effect>");
+                out.println("\t\t</effects>");
+                out.println("\t</skill>");
+            }
+            out.println("</list>");
+        }
+    }
+}
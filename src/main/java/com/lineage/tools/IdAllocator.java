@@ -0,0 +1,235 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Bitmap of the ids used by a manager's list, for handing out new ids:
+// next() (highest id + 1) is O(1), firstFree(a, b) finds gaps inside a custom
+// range and reserve() sets a contiguous block aside for a bulk import.
+//
+// Ids are kept in 4096-bit pages, allocated on first use, with a count of set
+// bits per page so empty and full pages are skipped whole. Ids below 1 are not
+// tracked. Follows one list the same way IntIndex does.
+public class IdAllocator<T> {
+
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_BITS = 1 << PAGE_SHIFT;
+    private static final int PAGE_WORDS = PAGE_BITS >>> 6;
+
+    private final ToIntFunction<T> idOf;
+    private long[][] pages = new long[0][];
+    private int[] counts = new int[0];
+    private int highest;   // 0 = nothing used
+
+    // {from, count} of every reserve() not released yet, kept across rebuilds
+    private final List<int[]> reservations = new ArrayList<>();
+
+    private List<T> indexed;
+    private int indexedSize = -1;
+
+    public IdAllocator(ToIntFunction<T> idOf) {
+        this.idOf = idOf;
+    }
+
+    // ========== ALLOCATION ==========
+
+    // Highest used or reserved id + 1 (1 for an empty list), -1 when exhausted
+    public int next(List<T> list) {
+        sync(list);
+        return highest == Integer.MAX_VALUE ? -1 : highest + 1;
+    }
+
+    // Lowest id in [from, to] that is neither used nor reserved, -1 if none
+    public int firstFree(List<T> list, int from, int to) {
+        sync(list);
+        return find(from, to, false);
+    }
+
+    // Reserves count consecutive free ids in [from, to] and returns the first,
+    // or -1 if there is no such block. The ids stay taken until release().
+    public int reserve(List<T> list, int count, int from, int to) {
+        if (count < 1) throw new IllegalArgumentException("count < 1");
+        sync(list);
+        int start = find(from, to, false);
+        while (start > 0 && (long) start + count - 1 <= to) {
+            int last = start + count - 1;
+            int used = find(start, last, true);
+            if (used < 0) {
+                for (int id = start; id <= last; id++) {
+                    set(id);
+                }
+                reservations.add(new int[] {start, count});
+                return start;
+            }
+            if (used == to) break;
+            start = find(used + 1, to, false);
+        }
+        return -1;
+    }
+
+    public void release(int from, int count) {
+        if (reservations.removeIf(r -> r[0] == from && r[1] == count)) {
+            indexed = null;
+        }
+    }
+
+    public void releaseAll() {
+        if (!reservations.isEmpty()) {
+            reservations.clear();
+            indexed = null;
+        }
+    }
+
+    public boolean isUsed(List<T> list, int id) {
+        sync(list);
+        return get(id);
+    }
+
+    // ========== LIST TRACKING ==========
+
+    public void added(List<T> list, T value) {
+        if (indexed == list && indexedSize == list.size() - 1) {
+            set(idOf.applyAsInt(value));
+            indexedSize++;
+        }
+    }
+
+    public void removed(List<T> list, T value) {
+        if (indexed != list || indexedSize != list.size() + 1) return;
+        indexedSize--;
+        int id = idOf.applyAsInt(value);
+        for (T other : list) {
+            if (idOf.applyAsInt(other) == id) return;
+        }
+        for (int[] r : reservations) {
+            if (id >= r[0] && id - r[0] < r[1]) return;
+        }
+        clear(id);
+    }
+
+    private void sync(List<T> list) {
+        if (indexed == list && indexedSize == list.size()) return;
+        pages = new long[0][];
+        counts = new int[0];
+        highest = 0;
+        for (T value : list) {
+            set(idOf.applyAsInt(value));
+        }
+        for (int[] r : reservations) {
+            for (int i = 0; i < r[1]; i++) {
+                set(r[0] + i);
+            }
+        }
+        indexed = list;
+        indexedSize = list.size();
+    }
+
+    // ========== BITMAP ==========
+
+    private boolean get(int id) {
+        if (id < 1) return false;
+        int p = id >>> PAGE_SHIFT;
+        long[] page = p < pages.length ? pages[p] : null;
+        return page != null && (page[(id >>> 6) & (PAGE_WORDS - 1)] & (1L << id)) != 0;
+    }
+
+    private void set(int id) {
+        if (id < 1) return;
+        int p = id >>> PAGE_SHIFT;
+        if (p >= pages.length) {
+            int length = Math.max(p + 1, Math.min(pages.length * 2, (Integer.MAX_VALUE >>> PAGE_SHIFT) + 1));
+            pages = Arrays.copyOf(pages, length);
+            counts = Arrays.copyOf(counts, length);
+        }
+        long[] page = pages[p];
+        if (page == null) {
+            page = pages[p] = new long[PAGE_WORDS];
+        }
+        int w = (id >>> 6) & (PAGE_WORDS - 1);
+        if ((page[w] & (1L << id)) == 0) {
+            page[w] |= 1L << id;
+            counts[p]++;
+            if (id > highest) highest = id;
+        }
+    }
+
+    private void clear(int id) {
+        if (!get(id)) return;
+        int p = id >>> PAGE_SHIFT;
+        pages[p][(id >>> 6) & (PAGE_WORDS - 1)] &= ~(1L << id);
+        counts[p]--;
+        if (id == highest) {
+            highest = findHighest(p);
+        }
+    }
+
+    // Highest set id on page p or below, 0 if none
+    private int findHighest(int p) {
+        for (; p >= 0; p--) {
+            if (counts[p] == 0) continue;
+            long[] page = pages[p];
+            for (int w = PAGE_WORDS - 1; w >= 0; w--) {
+                if (page[w] != 0) {
+                    return (p << PAGE_SHIFT) + (w << 6) + 63 - Long.numberOfLeadingZeros(page[w]);
+                }
+            }
+        }
+        return 0;
+    }
+
+    // First id in [from, to] whose bit equals used, -1 if none
+    private int find(int from, int to, boolean used) {
+        long id = Math.max(from, 1);
+        while (id <= to) {
+            int p = (int) (id >>> PAGE_SHIFT);
+            if (p >= pages.length) {
+                return used ? -1 : (int) id;
+            }
+            long pageStart = (long) p << PAGE_SHIFT;
+            long pageEnd = pageStart + PAGE_BITS;
+            int count = counts[p];
+            if (count == 0 || count == PAGE_BITS) {
+                if ((count != 0) == used) return (int) id;
+                id = pageEnd;
+                continue;
+            }
+            long[] page = pages[p];
+            int w = (int) ((id - pageStart) >>> 6);
+            long word = (used ? page[w] : ~page[w]) & (-1L << id);
+            while (true) {
+                if (word != 0) {
+                    long hit = pageStart + ((long) w << 6) + Long.numberOfTrailingZeros(word);
+                    return hit <= to ? (int) hit : -1;
+                }
+                if (++w == PAGE_WORDS) break;
+                word = used ? page[w] : ~page[w];
+            }
+            id = pageEnd;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Id -> entry index over a manager's list: open addressing with linear
+// probing on a primitive int[] of keys, so lookups neither box nor allocate.
+// Like the linear scans it replaces, the first entry of the list wins when
+// ids repeat.
+//
+// The index follows one list. Managers report their own adds/removes; when
+// the list was replaced or changed behind their back (other size), the next
+// lookup rebuilds it.
+public class IntIndex<T> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final ToIntFunction<T> keyOf;
+    private int[] keys;
+    private Object[] values;   // null = free slot
+    private int size;
+    private int mask;
+
+    private List<T> indexed;
+    private int indexedSize = -1;
+
+    public IntIndex(ToIntFunction<T> keyOf) {
+        this.keyOf = keyOf;
+        allocate(MIN_CAPACITY);
+    }
+
+    // ========== LIST TRACKING ==========
+
+    public T get(List<T> list, int key) {
+        sync(list);
+        return get(key);
+    }
+
+    public void added(List<T> list, T value) {
+        if (indexed == list && indexedSize == list.size() - 1) {
+            putIfAbsent(keyOf.applyAsInt(value), value);
+            indexedSize++;
+        }
+    }
+
+    public void removed(List<T> list, T value) {
+        if (indexed != list || indexedSize != list.size() + 1) return;
+        indexedSize--;
+        int key = keyOf.applyAsInt(value);
+        if (get(key) != value) return;
+        remove(key);
+        // A later entry with the same id takes over
+        for (T other : list) {
+            if (keyOf.applyAsInt(other) == key) {
+                put(key, other);
+                break;
+            }
+        }
+    }
+
+    // For list.set(i, value) where value has the same id as the entry it replaced
+    public void replaced(List<T> list, T old, T value) {
+        if (indexed == list && indexedSize == list.size() && get(keyOf.applyAsInt(old)) == old) {
+            put(keyOf.applyAsInt(value), value);
+        } else {
+            indexed = null;
+        }
+    }
+
+    private void sync(List<T> list) {
+        if (indexed == list && indexedSize == list.size()) return;
+        clear();
+        if (list.size() * 2 > keys.length) {
+            allocate(capacityFor(list.size()));
+        }
+        for (T value : list) {
+            putIfAbsent(keyOf.applyAsInt(value), value);
+        }
+        indexed = list;
+        indexedSize = list.size();
+    }
+
+    // ========== HASH TABLE ==========
+
+    @SuppressWarnings("unchecked")
+    public T get(int key) {
+        int i = slot(key);
+        Object value;
+        while ((value = values[i]) != null) {
+            if (keys[i] == key) return (T) value;
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public void put(int key, T value) {
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        insert(i, key, value);
+    }
+
+    public boolean putIfAbsent(int key, T value) {
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) return false;
+            i = (i + 1) & mask;
+        }
+        insert(i, key, value);
+        return true;
+    }
+
+    public void remove(int key) {
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                deleteSlot(i);
+                size--;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    public int size() { return size; }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        indexed = null;
+        indexedSize = -1;
+    }
+
+    private void insert(int i, int key, Object value) {
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    // Backward shift: moves later entries of the probe run into the hole so
+    // no tombstones are needed
+    private void deleteSlot(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) break;
+            int home = slot(keys[i]);
+            // Entry at i may move to hole only if its home is not in (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int j = slot(oldKeys[i]);
+                while (values[j] != null) j = (j + 1) & mask;
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int entries) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, entries * 2 - 1)) << 1);
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
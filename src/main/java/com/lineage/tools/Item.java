@@ -23,6 +23,7 @@ SOFTWARE.
 package com.lineage.tools;
 
 import javax.xml.bind.annotation.*;
+import java.io.File;
 import java.util.*;
 
 @XmlAccessorType(XmlAccessType.FIELD)
@@ -38,7 +39,7 @@ public class Item {
     private String name;
     
     @XmlElement(name = "set")
-    private List<ItemSet> sets = new ArrayList<>();
+    private List<ItemSet> sets = new NameIndex.Tracked<>();
     
     @XmlElement(name = "stats")
     private ItemStats stats;
@@ -46,6 +47,15 @@ public class Item {
     @XmlElement(name = "skills")
     private ItemSkills skills;
     
+    // File the item was loaded from, not part of the XML
+    @XmlTransient
+    private File sourceFile;
+    
+    // Built on first getSetValue, dropped by setSets and rebuilt after the list
+    // changed in place (see NameIndex)
+    @XmlTransient
+    private NameIndex<ItemSet> setIndex;
+    
     // Getters e Setters
     public int getItemId() { return itemId; }
     public void setItemId(int itemId) { this.itemId = itemId; }
@@ -57,7 +67,10 @@ public class Item {
     public void setName(String name) { this.name = name; }
     
     public List<ItemSet> getSets() { return sets; }
-    public void setSets(List<ItemSet> sets) { this.sets = sets; }
+    public void setSets(List<ItemSet> sets) {
+        this.sets = NameIndex.track(sets);
+        this.setIndex = null;
+    }
     
     public ItemStats getStats() { return stats; }
     public void setStats(ItemStats stats) { this.stats = stats; }
@@ -65,13 +78,17 @@ public class Item {
     public ItemSkills getSkills() { return skills; }
     public void setSkills(ItemSkills skills) { this.skills = skills; }
     
+    public File getSourceFile() { return sourceFile; }
+    public void setSourceFile(File sourceFile) { this.sourceFile = sourceFile; }
+    
     // Auxiliary method for retrieving value from a specific set.
     public String getSetValue(String setName) {
-        return sets.stream()
-                .filter(s -> s.getName().equals(setName))
-                .map(ItemSet::getVal)
-                .findFirst()
-                .orElse(null);
+        NameIndex<ItemSet> index = setIndex;
+        if (index == null || !index.isCurrent(sets)) {
+            setIndex = index = NameIndex.of(sets, ItemSet::getName);
+        }
+        ItemSet set = index.get(sets, setName);
+        return set != null ? set.getVal() : null;
     }
     
     @Override
@@ -99,17 +116,26 @@ public class Item {
 	@XmlAccessorType(XmlAccessType.FIELD)
 	class ItemStats {
     @XmlElement(name = "stat")
-    private List<ItemStat> stats = new ArrayList<>();
+    private List<ItemStat> stats = new NameIndex.Tracked<>();
+    
+    // Built on first getStatValue, dropped by setStats and rebuilt after the
+    // list changed in place (see NameIndex)
+    @XmlTransient
+    private NameIndex<ItemStat> statIndex;
     
     public List<ItemStat> getStats() { return stats; }
-    public void setStats(List<ItemStat> stats) { this.stats = stats; }
+    public void setStats(List<ItemStat> stats) {
+        this.stats = NameIndex.track(stats);
+        this.statIndex = null;
+    }
     
     public String getStatValue(String statType) {
-        return stats.stream()
-                .filter(s -> s.getType().equals(statType))
-                .map(ItemStat::getValue)
-                .findFirst()
-                .orElse(null);
+        NameIndex<ItemStat> index = statIndex;
+        if (index == null || !index.isCurrent(stats)) {
+            statIndex = index = NameIndex.of(stats, ItemStat::getType);
+        }
+        ItemStat stat = index.get(stats, statType);
+        return stat != null ? stat.getValue() : null;
     }
 }
 
@@ -35,6 +35,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
 import java.net.URL;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Locale;
@@ -46,16 +47,37 @@ public class ItemEditorGUI extends JFrame {
     
     private static final long serialVersionUID = 1L;
     private static final String PREF_LAST_DIR = "lastItemDirectory";
+    private static final String PREF_AUTOSAVE = "itemAutosave";
+    private static final String PREF_AUTOSAVE_DELAY = "itemAutosaveDelay";
     private Preferences prefs;    
 
     private ItemManager itemManager;
+    private final ChangeBus.Listener itemsListener = this::itemsChanged;
     private JTable itemTable;
-    private DefaultTableModel tableModel;
+    private ListTableModel<Item> tableModel;
+    private ListRowSorter<Item> sorter;
     private JTextField searchField;
     private Item currentItem;
+    // Set while a row is selected again without reloading the editor from it
+    private boolean keepEditor;
     private boolean darkMode = true;
     private Locale currentLocale;
     
+    // External change detection
+    private DatapackWatcher watcher;
+    private boolean watchFiles = false;
+    
+    // Background loading
+    private LoadWorker<Item> loadWorker;
+    private LoadProgressPanel loadProgress;
+    
+    // Optional background save of the loaded file (null when off)
+    private AutoSaver<ItemManager.SaveSnapshot> autoSaver;
+    
+    // Live search as the user types, off the EDT
+    private final SearchScheduler<List<Item>> searchScheduler =
+        new SearchScheduler<>("item-search", SearchScheduler.DEFAULT_DELAY_MILLIS, this::refreshItemTable);
+    
     // Editor components
     private JTextField txtItemId, txtName, txtType;
     private JTable setsTable;
@@ -67,15 +89,27 @@ public class ItemEditorGUI extends JFrame {
     private JLabel statusLabel;
     
     public ItemEditorGUI(Locale locale) {
+        this(locale, new ItemManager());
+    }
+    
+    // Opens on items that are already loaded (see Workspace)
+    public ItemEditorGUI(Locale locale, ItemManager itemManager) {
     	prefs = Preferences.userNodeForPackage(ItemEditorGUI.class);
     	this.currentLocale = locale;
         
         // Apply dark theme by default
         applyTheme(true);
         
-        itemManager = new ItemManager();
+        this.itemManager = itemManager;
+        itemManager.setEditListener(this::onItemEdited);
+        itemManager.getChanges().addListener(itemsListener);
+        setAutoSave(prefs.getBoolean(PREF_AUTOSAVE, false));
         initComponents();
         setIcon();
+        if (!itemManager.getItems().isEmpty()) {
+            refreshItemTable(itemManager.getItems());
+            updateStatus("Loaded " + itemManager.getItems().size() + " items");
+        }
     }
     
     private void applyTheme(boolean dark) {
@@ -162,6 +196,19 @@ public class ItemEditorGUI extends JFrame {
         fileMenu.add(saveItem);
         fileMenu.addSeparator();
         
+        JCheckBoxMenuItem watchItem = new JCheckBoxMenuItem("Watch File for Changes", watchFiles);
+        watchItem.addActionListener(e -> setWatchFiles(watchItem.isSelected()));
+        fileMenu.add(watchItem);
+        
+        JCheckBoxMenuItem autoSaveItem = new JCheckBoxMenuItem("Autosave", autoSaver != null);
+        autoSaveItem.addActionListener(e -> {
+            setAutoSave(autoSaveItem.isSelected());
+            prefs.putBoolean(PREF_AUTOSAVE, autoSaveItem.isSelected());
+        });
+        fileMenu.add(autoSaveItem);
+        fileMenu.add(new JMenuItem("Autosave Delay...")).addActionListener(e -> editAutoSaveDelay());
+        fileMenu.addSeparator();
+        
         JMenuItem exitItem = new JMenuItem("Close");
         exitItem.addActionListener(e -> dispose());
         fileMenu.add(exitItem);
@@ -217,23 +264,21 @@ public class ItemEditorGUI extends JFrame {
         searchPanel.add(new JLabel("🔍 Search: "), BorderLayout.WEST);
         searchField = new JTextField();
         searchField.getDocument().addDocumentListener(new DocumentListener() {
-            public void changedUpdate(DocumentEvent e) { filterItems(); }
-            public void removeUpdate(DocumentEvent e) { filterItems(); }
-            public void insertUpdate(DocumentEvent e) { filterItems(); }
+            public void changedUpdate(DocumentEvent e) { scheduleFilter(); }
+            public void removeUpdate(DocumentEvent e) { scheduleFilter(); }
+            public void insertUpdate(DocumentEvent e) { scheduleFilter(); }
         });
         searchPanel.add(searchField, BorderLayout.CENTER);
         leftPanel.add(searchPanel, BorderLayout.NORTH);
         
         // Tabela de items
         String[] columns = {"ID", "Name", "Type"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new ListTableModel<>(columns, Item::getItemId, Item::getName, Item::getType);
         
+        sorter = new ListRowSorter<>(tableModel);
+        sorter.setIntColumn(0, Item::getItemId);
         itemTable = new JTable(tableModel);
+        itemTable.setRowSorter(sorter);
         itemTable.setRowHeight(25);
         itemTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -418,12 +463,17 @@ public class ItemEditorGUI extends JFrame {
         statusLabel.setFont(statusLabel.getFont().deriveFont(11f));
         statusBar.add(statusLabel);
         
+        loadProgress = new LoadProgressPanel("Cancel");
+        statusBar.add(loadProgress);
+        
         return statusBar;
     }
     
     // ========== FUNCTIONAL METHODS ==========
     
     private void loadXml() {
+        if (loadWorker != null) return;
+        
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("XML files", "xml"));
         String lastDir = prefs.get(PREF_LAST_DIR, null);
@@ -432,25 +482,84 @@ public class ItemEditorGUI extends JFrame {
         }      
  
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try {
-                File file = fileChooser.getSelectedFile();
-                prefs.put(PREF_LAST_DIR, file.getParent());
-                itemManager.loadFromFile(file);
-                refreshItemTable(itemManager.getItems());
-                JOptionPane.showMessageDialog(this, 
-                    "Loaded " + itemManager.getItems().size() + " items successfully!");
-                updateStatus("Loaded " + itemManager.getItems().size() + " items");
-                
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error loading XML: " + ex.getMessage(), 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-                ex.printStackTrace();
-            }
+            File file = fileChooser.getSelectedFile();
+            prefs.put(PREF_LAST_DIR, file.getParent());
+            startLoad(file);
         }
     }
     
+    // Parses off the EDT. Rows are appended as batches arrive and can be selected
+    // right away; if the load fails or is cancelled the previous items come back.
+    private void startLoad(File file) {
+        // The table is filled while the file is read: never autosave that
+        if (autoSaver != null) autoSaver.pause();
+        itemManager.suspendJournal();
+        List<Item> previous = itemManager.getItems();
+        itemManager.setItems(new ArrayList<>());
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        
+        loadWorker = new LoadWorker<>(file.length(), (sink, monitor) -> itemManager.readFile(file, sink, monitor),
+            new LoadWorker.Listener<Item>() {
+                @Override
+                public void loaded(List<Item> batch) {
+                    for (Item item : batch) {
+                        itemManager.addItem(item);
+                    }
+                }
+                
+                @Override
+                public void finished(LoadResult<Item> result) {
+                    loadWorker = null;
+                    itemManager.applyLoad(result);
+                    if (autoSaver != null) autoSaver.resume();
+                    restartWatcher();
+                    JOptionPane.showMessageDialog(ItemEditorGUI.this, 
+                        "Loaded " + itemManager.getItems().size() + " items successfully!");
+                    updateStatus("Loaded " + itemManager.getItems().size() + " items");
+                    int recovered = itemManager.getRecoveredEdits();
+                    if (recovered > 0) {
+                        onItemEdited();
+                        updateStatus("Recovered " + recovered + " unsaved edits");
+                        JOptionPane.showMessageDialog(ItemEditorGUI.this, "Recovered " + recovered + " unsaved edits");
+                    }
+                }
+                
+                @Override
+                public void failed(Exception ex) {
+                    restore();
+                    JOptionPane.showMessageDialog(ItemEditorGUI.this, 
+                        "Error loading XML: " + ex.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    ex.printStackTrace();
+                }
+                
+                @Override
+                public void cancelled() {
+                    restore();
+                    updateStatus("Load cancelled");
+                }
+                
+                private void restore() {
+                    loadWorker = null;
+                    itemManager.setItems(previous);
+                    itemManager.resumeJournal();
+                    if (autoSaver != null) autoSaver.resume();
+                    // Also runs after dispose() cancelled the load
+                    if (isDisplayable()) restartWatcher();
+                }
+            });
+        loadProgress.track(loadWorker);
+        updateStatus("Loading " + file.getName());
+        loadWorker.execute();
+    }
+    
     private void saveXml() {
+        // Never write out a half-loaded file
+        if (loadWorker != null) return;
+        
         if (itemManager.getItems().isEmpty()) {
             JOptionPane.showMessageDialog(this, "No items to save!");
             return;
@@ -483,18 +592,194 @@ public class ItemEditorGUI extends JFrame {
         }
     }
     
+    private void setWatchFiles(boolean enabled) {
+        watchFiles = enabled;
+        restartWatcher();
+    }
+    
+    private void restartWatcher() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        if (!watchFiles || itemManager.getSourceFiles().isEmpty()) return;
+        
+        try {
+            watcher = new DatapackWatcher(itemManager.getSourceFiles(), this::onFileChanged);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, 
+                "Error watching file: " + ex.getMessage(), 
+                "Error", JOptionPane.ERROR_MESSAGE);
+            ex.printStackTrace();
+        }
+    }
+    
+    // Watcher thread: parse only the changed file, then apply it on the EDT
+    private void onFileChanged(File file) {
+        try {
+            List<Item> reloaded = itemManager.parseChangedFile(file);
+            if (reloaded != null) {
+                SwingUtilities.invokeLater(() -> applyReload(file, reloaded));
+            }
+        } catch (Exception ex) {
+            SwingUtilities.invokeLater(() -> updateStatus("Error reloading " + file.getName()));
+            ex.printStackTrace();
+        }
+    }
+    
+    private void applyReload(File file, List<Item> reloaded) {
+        // Queued by the previous watcher; the running load reads the file anyway
+        if (loadWorker != null) return;
+        
+        ModelChange change = itemManager.replaceFileItems(file, reloaded);
+        if (change.isEmpty()) return;
+        
+        filterItems();
+        if (currentItem != null) {
+            int currentId = currentItem.getItemId();
+            if (change.getRemoved().contains(currentId)) {
+                currentItem = null;
+                clearEditor();
+            } else {
+                // An unchanged item keeps whatever is being typed in the editor
+                selectItem(itemManager.findItemById(currentId), change.getUpdated().contains(currentId));
+            }
+        }
+        updateStatus("Reloaded " + file.getName() + " (" + change + ")");
+    }
+    
+    @Override
+    public void dispose() {
+        if (loadWorker != null) {
+            loadWorker.cancel(true);
+        }
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        // Anything not autosaved yet is still in the edit journal
+        itemManager.setEditListener(null);
+        itemManager.getChanges().removeListener(itemsListener);
+        setAutoSave(false);
+        searchScheduler.close();
+        super.dispose();
+    }
+    
+    // ========== AUTOSAVE ==========
+    
+    private void onItemEdited() {
+        if (autoSaver != null) autoSaver.edited();
+    }
+    
+    // Around a datapack load applied from the skill editor (see loadDatapack there)
+    void pauseAutoSave() {
+        if (autoSaver != null) autoSaver.pause();
+    }
+    
+    void resumeAutoSave() {
+        if (autoSaver != null) autoSaver.resume();
+    }
+    
+    private void setAutoSave(boolean enabled) {
+        if (autoSaver != null) {
+            autoSaver.close();
+            autoSaver = null;
+        }
+        if (!enabled) return;
+        long delay = prefs.getLong(PREF_AUTOSAVE_DELAY, AutoSaver.DEFAULT_QUIET_MILLIS);
+        // Only a single loaded file is saved back; folders need Save XML
+        autoSaver = new AutoSaver<>("item-autosave", delay, itemManager::getEditVersion,
+                new AutoSaver.Saver<>() {
+            private ItemManager manager;
+            
+            @Override
+            public ItemManager.SaveSnapshot snapshot() throws Exception {
+                manager = itemManager;
+                return manager.snapshot();
+            }
+            
+            @Override
+            public void save(ItemManager.SaveSnapshot snapshot) throws Exception {
+                manager.save(snapshot);
+            }
+        }, () -> SwingUtilities.invokeLater(() ->
+            updateStatus("Autosaved at " + LocalTime.now().withNano(0))
+        ), ex -> SwingUtilities.invokeLater(() -> {
+            updateStatus("Autosave failed: " + ex.getMessage());
+            ex.printStackTrace();
+        }));
+    }
+    
+    private void editAutoSaveDelay() {
+        long current = prefs.getLong(PREF_AUTOSAVE_DELAY, AutoSaver.DEFAULT_QUIET_MILLIS);
+        String input = JOptionPane.showInputDialog(this, "Seconds without edits before saving:", current / 1000.0);
+        if (input == null) return;
+        try {
+            long delay = Math.round(Double.parseDouble(input.trim().replace(',', '.')) * 1000);
+            if (delay < 100) throw new NumberFormatException();
+            prefs.putLong(PREF_AUTOSAVE_DELAY, delay);
+            if (autoSaver != null) autoSaver.setQuietMillis(delay);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Enter a number of seconds (at least 0.1)");
+        }
+    }
+    
+    // Edits from this window or any other one showing the same manager, once per
+    // event-queue turn. Updated and added items touch only their rows.
+    private void itemsChanged(ModelChange change) {
+        List<Item> all = itemManager.getItems();
+        if (change.isReset() || !change.getRemoved().isEmpty() || tableModel.getRows() != all) {
+            // Rows moved: the search runs again on the new positions
+            filterItems();
+            // Another window may have loaded or reloaded the items
+            if (currentItem != null && itemManager.findItemById(currentItem.getItemId()) != currentItem) {
+                currentItem = null;
+                clearEditor();
+            }
+            return;
+        }
+        // New items are appended, and shown even under a search (except while loading)
+        if (loadWorker == null) sorter.includeRows(tableModel.getRowCount(), all.size());
+        tableModel.rowsAppended();
+        List<Item> updated = new ArrayList<>(change.getUpdated().size());
+        for (int itemId : change.getUpdated()) {
+            Item item = itemManager.findItemById(itemId);
+            if (item != null) updated.add(item);
+        }
+        tableModel.rowsUpdated(updated);
+    }
+    
+    // The table always holds the manager's list: a search only hides rows
     private void refreshItemTable(List<Item> items) {
-        tableModel.setRowCount(0);
-        for (Item item : items) {
-            tableModel.addRow(new Object[]{
-                item.getItemId(),
-                item.getName(),
-                item.getType()
-            });
+        List<Item> all = itemManager.getItems();
+        if (tableModel.getRows() != all) tableModel.setRows(all);
+        sorter.setVisibleRows(items == all ? null : tableModel.rowsOf(items));
+    }
+    
+    private void selectItem(Item item, boolean load) {
+        int row = tableModel.indexOf(item);
+        int viewRow = row < 0 ? -1 : itemTable.convertRowIndexToView(row);
+        if (viewRow < 0) return;
+        keepEditor = !load;
+        try {
+            itemTable.setRowSelectionInterval(viewRow, viewRow);
+        } finally {
+            keepEditor = false;
+        }
+    }
+    
+    // Typing: the query runs once the user pauses, and only its latest result is shown
+    private void scheduleFilter() {
+        String search = searchField.getText();
+        if (search.isEmpty()) {
+            filterItems();
+        } else {
+            searchScheduler.submit(search, itemManager::searchItems);
         }
     }
     
     private void filterItems() {
+        searchScheduler.cancel();
         String search = searchField.getText();
         if (search.isEmpty()) {
             refreshItemTable(itemManager.getItems());
@@ -505,12 +790,11 @@ public class ItemEditorGUI extends JFrame {
     
     private void loadSelectedItem() {
         int selectedRow = itemTable.getSelectedRow();
-        if (selectedRow < 0) return;
+        if (selectedRow < 0 || keepEditor) return;
         
-        int itemId = (int) tableModel.getValueAt(selectedRow, 0);
-        currentItem = itemManager.findItemById(itemId);
-        
-        if (currentItem == null) return;
+        Item selected = tableModel.getRow(itemTable.convertRowIndexToModel(selectedRow));
+        if (selected == null) return;
+        currentItem = selected;
         
         // Load basic attributes
         txtItemId.setText(String.valueOf(currentItem.getItemId()));
@@ -543,6 +827,8 @@ public class ItemEditorGUI extends JFrame {
     }
     
     private void saveItemChanges() {
+        // Rows are read-only until the load is applied (applyLoad replaces them)
+        if (loadWorker != null) return;
         if (currentItem == null) {
             JOptionPane.showMessageDialog(this, "No item selected!");
             return;
@@ -598,9 +884,9 @@ public class ItemEditorGUI extends JFrame {
         }
         skills.setSkills(newSkills);
         currentItem.setSkills(skills);
+        itemManager.updateItem(currentItem);
         
         JOptionPane.showMessageDialog(this, "Item updated successfully!");
-        refreshItemTable(itemManager.getItems());
         updateStatus("Item " + currentItem.getItemId() + " updated");
     }
     
@@ -609,6 +895,7 @@ public class ItemEditorGUI extends JFrame {
     }
     
     private void newItem() {
+        if (loadWorker != null) return;
         int newId = itemManager.getNextItemId();
         Item item = new Item();
         item.setItemId(newId);
@@ -616,19 +903,15 @@ public class ItemEditorGUI extends JFrame {
         item.setType("Weapon");
         
         itemManager.addItem(item);
-        refreshItemTable(itemManager.getItems());
-        
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            if ((int) tableModel.getValueAt(i, 0) == newId) {
-                itemTable.setRowSelectionInterval(i, i);
-                break;
-            }
-        }
+        itemManager.updateItem(item);
+        // Once the change has reached the table
+        SwingUtilities.invokeLater(() -> selectItem(item, true));
         
         updateStatus("New item created with ID: " + newId);
     }
     
     private void cloneItem() {
+        if (loadWorker != null) return;
         if (currentItem == null) {
             JOptionPane.showMessageDialog(this, "Select an item to clone!");
             return;
@@ -640,11 +923,12 @@ public class ItemEditorGUI extends JFrame {
         clone.setType(currentItem.getType());
         
         itemManager.addItem(clone);
-        refreshItemTable(itemManager.getItems());
+        itemManager.updateItem(clone);
         updateStatus("Item cloned with ID: " + clone.getItemId());
     }
     
     private void deleteItem() {
+        if (loadWorker != null) return;
         if (currentItem == null) {
             JOptionPane.showMessageDialog(this, "Select an item to delete!");
             return;
@@ -657,7 +941,6 @@ public class ItemEditorGUI extends JFrame {
             
         if (confirm == JOptionPane.YES_OPTION) {
             itemManager.removeItem(currentItem);
-            refreshItemTable(itemManager.getItems());
             currentItem = null;
             clearEditor();
             updateStatus("Item deleted");
@@ -27,10 +27,17 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @XmlRootElement(name = "list")
 @XmlAccessorType(XmlAccessType.FIELD)
@@ -39,55 +46,435 @@ public class ItemManager {
     @XmlElement(name = "item")
     private List<Item> items = new ArrayList<>();
     
+    @XmlTransient
+    private final IntIndex<Item> byId = new IntIndex<>(Item::getItemId);
+    @XmlTransient
+    private final IdAllocator<Item> ids = new IdAllocator<>(Item::getItemId);
+    @XmlTransient
+    private final TrigramIndex<Item> text = new TrigramIndex<>(i -> i.getItemId() + "\0" + i.getName() + "\0" + (i.getType() != null ? i.getType() : ""));
+    
+    // Snapshot key of every file as last read or written, to tell real
+    // external changes from our own saves
+    @XmlTransient
+    private final Map<File, SnapshotCache.Key> fileKeys = new ConcurrentHashMap<>();
+    
+    // Items edited and ids removed since the last save, with the edit version
+    // of their last change, so a save only clears what its snapshot held
+    @XmlTransient
+    private final Map<Item, Long> dirty = Collections.synchronizedMap(new IdentityHashMap<>());
+    @XmlTransient
+    private final Map<Integer, Long> removed = Collections.synchronizedMap(new HashMap<>());
+    
+    // Edits not saved yet, replayed after the next load of the same source
+    @XmlTransient
+    private EditJournal journal;
+    @XmlTransient
+    private EditJournal suspendedJournal;
+    @XmlTransient
+    private int recoveredEdits;
+    
+    // The file of a single-file load (null for a folder), for AutoSaver
+    @XmlTransient
+    private volatile File loadedFile;
+    
+    // Bumped by every edit, for AutoSaver
+    @XmlTransient
+    private final AtomicLong editVersion = new AtomicLong();
+    @XmlTransient
+    private volatile Runnable editListener;
+    
+    // Ids added, removed or updated, for the editor windows showing this manager
+    @XmlTransient
+    private final ChangeBus changes = new ChangeBus();
+    
     public ItemManager() {}
     
     public List<Item> getItems() { return items; }
-    public void setItems(List<Item> items) { this.items = items; }
+    public void setItems(List<Item> items) {
+        swap(items);
+    }
+    
+    public ChangeBus getChanges() { return changes; }
     
     public void addItem(Item item) {
-        items.add(item);
+        insert(item);
     }
     
     public void removeItem(Item item) {
-        items.remove(item);
+        delete(item);
+        dirty.remove(item);
+        removed.put(item.getItemId(), editVersion.incrementAndGet());
+        if (journal != null) journal.removeItem(item.getItemId());
+        edited();
+    }
+    
+    // Must be called after an item has been added or changed in place
+    public void updateItem(Item item) {
+        dirty.put(item, editVersion.incrementAndGet());
+        text.updated(items, item);
+        changes.updated(item.getItemId());
+        if (journal != null) journal.putItem(item);
+        edited();
+    }
+    
+    // Every change to the list itself goes through these, keeping the indexes
+    // current. They hold the search index's lock since searches run on the
+    // search thread (see SearchScheduler).
+    private void insert(Item item) {
+        synchronized (text) {
+            items.add(item);
+            changes.added(item.getItemId(), items.size() - 1);
+            byId.added(items, item);
+            ids.added(items, item);
+            text.added(items, item);
+        }
+    }
+    
+    private void delete(Item item) {
+        synchronized (text) {
+            int row = items.indexOf(item);
+            if (row >= 0) {
+                items.remove(row);
+                changes.removed(item.getItemId(), row);
+                byId.removed(items, item);
+                ids.removed(items, item);
+                text.removed(items, item);
+            }
+        }
+    }
+    
+    private void replace(Item old, Item item) {
+        synchronized (text) {
+            items.set(items.indexOf(old), item);
+            changes.updated(item.getItemId());
+            byId.replaced(items, old, item);
+            text.replaced(items, old, item);
+        }
     }
     
+    // A whole new list; byId and ids rebuild on it at their next lookup
+    private void swap(List<Item> list) {
+        synchronized (text) {
+            this.items = list;
+            changes.reset();
+            text.index(list);
+        }
+    }
+    
+    private void edited() {
+        Runnable listener = editListener;
+        if (listener != null) listener.run();
+    }
+    
+    public long getEditVersion() { return editVersion.get(); }
+    
+    // Called (on the editing thread) after every updateItem/removeItem
+    public void setEditListener(Runnable editListener) { this.editListener = editListener; }
+    
+    public File getLoadedFile() { return loadedFile; }
+    
     public Item findItemById(int itemId) {
-        return items.stream()
-                .filter(i -> i.getItemId() == itemId)
-                .findFirst()
-                .orElse(null);
+        return byId.get(items, itemId);
     }
     
     public List<Item> searchItems(String searchTerm) {
-        String term = searchTerm.toLowerCase();
-        return items.stream()
-                .filter(i -> String.valueOf(i.getItemId()).contains(term) ||
-                            i.getName().toLowerCase().contains(term) ||
-                            (i.getType() != null && i.getType().toLowerCase().contains(term)))
-                .collect(Collectors.toList());
+        synchronized (text) {
+            return text.search(items, searchTerm);
+        }
     }
     
     public int getNextItemId() {
-        return items.stream()
-                .mapToInt(Item::getItemId)
-                .max()
-                .orElse(0) + 1;
+        return ids.next(items);
+    }
+    
+    // Lowest unused id in [from, to] (e.g. a custom item range), -1 if the range is full
+    public int findFreeItemId(int from, int to) {
+        return ids.firstFree(items, from, to);
+    }
+    
+    // Sets count consecutive unused ids in [from, to] aside for a bulk import and
+    // returns the first, -1 if there is no such block
+    public int reserveItemIds(int count, int from, int to) {
+        return ids.reserve(items, count, from, to);
+    }
+    
+    public void releaseItemIds(int from, int count) {
+        ids.release(from, count);
     }
     
     public void loadFromFile(File file) throws Exception {
-        JAXBContext context = JAXBContext.newInstance(ItemManager.class);
-        Unmarshaller unmarshaller = context.createUnmarshaller();
-        ItemManager loaded = (ItemManager) unmarshaller.unmarshal(file);
-        this.items = loaded.getItems();
+        applyLoad(readFile(file, null, LoadMonitor.NONE));
         System.out.println("Loaded " + items.size() + " items!");
     }
     
+    // Background half of a load (see LoadWorker): reads into a LoadResult without
+    // touching the manager, handing every item to sink as soon as it has been read
+    public LoadResult<Item> readFile(File file, Consumer<Item> sink, LoadMonitor monitor) throws Exception {
+        return readFile(file, sink, monitor, new StringPool());
+    }
+    
+    // strings is shared by the parts of a datapack (see Workspace.read)
+    public LoadResult<Item> readFile(File file, Consumer<Item> sink, LoadMonitor monitor, StringPool strings) throws Exception {
+        Map<File, SnapshotCache.Key> keys = new HashMap<>();
+        List<Item> loaded = readItemFile(file, sink, monitor, keys, strings);
+        return new LoadResult<>(loaded, keys, file, false, strings);
+    }
+    
+    // Split datapack (stats/items/*.xml), files parsed in parallel
+    public LoadResult<Item> readDirectory(File dir, Consumer<Item> sink, LoadMonitor monitor) throws Exception {
+        return readDirectory(dir, sink, monitor, new StringPool());
+    }
+    
+    public LoadResult<Item> readDirectory(File dir, Consumer<Item> sink, LoadMonitor monitor, StringPool strings) throws Exception {
+        List<File> files = DatapackLoader.listXmlFiles(dir);
+        Map<File, SnapshotCache.Key> keys = new ConcurrentHashMap<>();
+        List<List<Item>> perFile = DatapackLoader.parseAll(files, f -> readItemFile(f, null, monitor, keys, strings),
+            sink == null ? null : part -> part.forEach(sink));
+        
+        List<Item> merged = new ArrayList<>(perFile.stream().mapToInt(List::size).sum());
+        for (List<Item> part : perFile) {
+            merged.addAll(part);
+        }
+        return new LoadResult<>(merged, keys, dir, true, strings);
+    }
+    
+    // EDT half of a load
+    public synchronized void applyLoad(LoadResult<Item> result) {
+        swap(result.getEntries());
+        ids.releaseAll();
+        this.loadedFile = result.getSourceDirectory() == null ? result.getSource() : null;
+        fileKeys.clear();
+        fileKeys.putAll(result.getFileKeys());
+        dirty.clear();
+        removed.clear();
+        openJournal(result.getSource(), result.getStrings());
+    }
+    
+    // Number of unsaved edits the last load found in the journal and re-applied
+    public int getRecoveredEdits() { return recoveredEdits; }
+    
+    private void openJournal(File source, StringPool strings) {
+        closeJournal();
+        recoveredEdits = 0;
+        if (source == null) return;
+        try {
+            journal = EditJournal.open(source, fileKeys);
+        } catch (IOException e) {
+            System.err.println("Could not open edit journal for " + source + ": " + e.getMessage());
+            return;
+        }
+        for (EditJournal.Entry entry : journal.getRecovered()) {
+            if (entry.kind() == EditJournal.ITEM_PUT) {
+                Item item = (Item) entry.value();
+                strings.dedupe(item);
+                Item old = findItemById(item.getItemId());
+                if (old != null) {
+                    replace(old, item);
+                } else {
+                    insert(item);
+                }
+                dirty.put(item, 0L);
+                recoveredEdits++;
+            } else if (entry.kind() == EditJournal.ITEM_REMOVE) {
+                Item old = findItemById(entry.id());
+                if (old != null) delete(old);
+                removed.put(entry.id(), 0L);
+                recoveredEdits++;
+            }
+        }
+        if (recoveredEdits > 0) {
+            editVersion.incrementAndGet();
+            System.out.println("Recovered " + recoveredEdits + " unsaved edits from " + journal.getFile());
+        }
+    }
+    
+    // While a load fills the list the journal of the previous source must not
+    // see any change; a failed or cancelled load gives it back with the old items
+    public void suspendJournal() {
+        if (journal == null) return;
+        suspendedJournal = journal;
+        journal = null;
+    }
+    
+    public void resumeJournal() {
+        if (suspendedJournal == null) return;
+        journal = suspendedJournal;
+        suspendedJournal = null;
+    }
+    
+    public void closeJournal() {
+        resumeJournal();
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Could not close edit journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+    
+    // Snapshot if the file is unchanged since it was last read, otherwise JAXB
+    // (one <item> at a time, see JaxbListReader)
+    private List<Item> readItemFile(File file, Consumer<Item> sink, LoadMonitor monitor,
+                                    Map<File, SnapshotCache.Key> keys, StringPool strings) throws Exception {
+        File source = DatapackLoader.normalize(file);
+        SnapshotCache.Key key = SnapshotCache.key(source);
+        List<Item> loaded = SnapshotCache.loadItems(source, key);
+        if (loaded != null) {
+            monitor.bytesRead(key.size());
+            for (Item item : loaded) {
+                item.setSourceFile(source);
+                strings.dedupe(item);
+                if (sink != null) sink.accept(item);
+            }
+        } else {
+            JAXBContext context = Workspace.jaxbContext(ItemManager.class);
+            Unmarshaller unmarshaller = context.createUnmarshaller();
+            List<Item> parsed = new ArrayList<>();
+            try (InputStream in = monitor.monitor(new BufferedInputStream(new FileInputStream(source), 1 << 16))) {
+                JaxbListReader.read(in, unmarshaller, "item", Item.class, item -> {
+                    item.setSourceFile(source);
+                    strings.dedupe(item);
+                    parsed.add(item);
+                    if (sink != null) sink.accept(item);
+                });
+            }
+            SnapshotCache.storeItems(source, key, parsed);
+            loaded = parsed;
+        }
+        keys.put(source, key);
+        return loaded;
+    }
+    
+    public Set<File> getSourceFiles() {
+        return Collections.unmodifiableSet(fileKeys.keySet());
+    }
+    
+    // Re-reads a file reported by the DatapackWatcher. Returns null when the
+    // content is the same as what we last read or wrote (e.g. our own save).
+    public List<Item> parseChangedFile(File file) throws Exception {
+        File source = DatapackLoader.normalize(file);
+        if (!source.isFile() || SnapshotCache.key(source).equals(fileKeys.get(source))) {
+            return null;
+        }
+        return readItemFile(source, null, LoadMonitor.NONE, fileKeys, new StringPool());
+    }
+    
+    // Swaps the items of one source file for a freshly parsed copy. Items whose
+    // content did not change keep their existing instance; unsaved edits and
+    // removals win over the file, as in SkillManager.replaceFileSkills.
+    public ModelChange replaceFileItems(File file, List<Item> reloaded) {
+        File source = DatapackLoader.normalize(file);
+        ModelChange change = new ModelChange();
+        Map<Integer, Item> previous = new LinkedHashMap<>();
+        List<Item> kept = new ArrayList<>(items.size() + reloaded.size());
+        int insertAt = -1;
+        for (Item item : items) {
+            if (source.equals(item.getSourceFile())) {
+                if (insertAt < 0) insertAt = kept.size();
+                previous.putIfAbsent(item.getItemId(), item);
+            } else {
+                kept.add(item);
+            }
+        }
+        if (insertAt < 0) insertAt = kept.size();
+        
+        List<Item> merged = new ArrayList<>(reloaded.size());
+        for (Item item : reloaded) {
+            Item old = previous.remove(item.getItemId());
+            if (old == null) {
+                if (removed.containsKey(item.getItemId())) continue;
+                change.getAdded().add(item.getItemId());
+            } else if (Arrays.equals(ModelCodec.encode(old), ModelCodec.encode(item))) {
+                dirty.remove(old);
+                merged.add(old);
+                continue;
+            } else if (dirty.containsKey(old)) {
+                merged.add(old);
+                continue;
+            } else {
+                change.getUpdated().add(item.getItemId());
+            }
+            merged.add(item);
+        }
+        for (Item old : previous.values()) {
+            if (dirty.containsKey(old)) {
+                merged.add(old);
+            } else {
+                change.getRemoved().add(old.getItemId());
+            }
+        }
+        
+        kept.addAll(insertAt, merged);
+        swap(kept);
+        compactJournal();
+        return change;
+    }
+    
+    // Rewrites the journal to hold just the edits still unsaved, on top of the
+    // files as they are now
+    private void compactJournal() {
+        if (journal == null) return;
+        try {
+            long mark = journal.mark();
+            synchronized (removed) {
+                removed.keySet().forEach(journal::removeItem);
+            }
+            synchronized (dirty) {
+                dirty.keySet().forEach(journal::putItem);
+            }
+            journal.discard(mark, fileKeys);
+        } catch (IOException e) {
+            System.err.println("Could not compact edit journal: " + e.getMessage());
+        }
+    }
+    
+    // What a save writes, taken on the EDT: the items with the dirty ones
+    // already copied, the edit versions they were dirtied or removed by, and
+    // the journal position they cover
+    public record SaveSnapshot(File file, List<Item> items, Map<Item, Long> dirty, Map<Integer, Long> removed,
+                               long journalMark) {}
+    
+    // Everything back to the loaded file, null when the items did not come
+    // from a single file. Must be called on the EDT.
+    public SaveSnapshot snapshot() throws IOException {
+        File file = loadedFile;
+        return file != null ? snapshot(file) : null;
+    }
+    
+    private SaveSnapshot snapshot(File file) throws IOException {
+        long mark = journal != null ? journal.mark() : 0;
+        Map<Item, Long> edited;
+        synchronized (dirty) {
+            edited = new IdentityHashMap<>(dirty);
+        }
+        List<Item> content = new ArrayList<>(items.size());
+        for (Item item : items) {
+            content.add(edited.containsKey(item) ? ModelCodec.copy(item) : item);
+        }
+        Map<Integer, Long> removals;
+        synchronized (removed) {
+            removals = new HashMap<>(removed);
+        }
+        return new SaveSnapshot(file, content, edited, removals, mark);
+    }
+    
+    // Writes a snapshot; safe off the EDT. Dirty entries and removals are only
+    // cleared if they were not changed again since the snapshot was taken.
+    public synchronized void save(SaveSnapshot snapshot) throws Exception {
+        ModelXmlWriter.writeItems(snapshot.file(), snapshot.items());
+        snapshot.dirty().forEach(dirty::remove);
+        snapshot.removed().forEach(removed::remove);
+        
+        // Refresh the snapshot so reopening the saved file skips the parse
+        File source = DatapackLoader.normalize(snapshot.file());
+        SnapshotCache.Key key = SnapshotCache.key(source);
+        SnapshotCache.storeItems(source, key, snapshot.items());
+        fileKeys.put(source, key);
+        if (journal != null) journal.discard(snapshot.journalMark(), fileKeys);
+    }
+    
     public void saveToFile(File file) throws Exception {
-        JAXBContext context = JAXBContext.newInstance(ItemManager.class);
-        Marshaller marshaller = context.createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-        marshaller.marshal(this, file);
+        save(snapshot(file));
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+// Unmarshals the children of a <list> root one element at a time, so each
+// entry can be handed on as soon as it has been read. Produces the same
+// objects as unmarshalling the whole document.
+class JaxbListReader {
+
+    private JaxbListReader() {}
+
+    static <T> void read(InputStream in, Unmarshaller unmarshaller, String elementName, Class<T> type,
+                         Consumer<T> sink) throws XMLStreamException, JAXBException {
+        XMLStreamReader reader = SkillXmlReader.createFactory().createXMLStreamReader(in);
+        try {
+            if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !"list".equals(reader.getLocalName())) {
+                throw new XMLStreamException("Unexpected root element <" + reader.getLocalName() + ">, expected <list>",
+                    reader.getLocation());
+            }
+            int event = reader.next();
+            while (event != XMLStreamConstants.END_ELEMENT && event != XMLStreamConstants.END_DOCUMENT) {
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (elementName.equals(reader.getLocalName())) {
+                        // Leaves the reader on the event after the element's end tag
+                        sink.accept(unmarshaller.unmarshal(reader, type).getValue());
+                        event = reader.getEventType();
+                        continue;
+                    }
+                    SkillXmlReader.skipElement(reader);
+                }
+                event = reader.next();
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.text.Collator;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.function.ToIntFunction;
+import javax.swing.DefaultRowSorter;
+import javax.swing.RowFilter;
+
+// Sorter and filter for a ListTableModel. The model keeps showing the whole list:
+// a search only changes which rows are visible, and sorting compares the entities
+// themselves, so int columns are sorted on the int without building cell values.
+public class ListRowSorter<T> extends DefaultRowSorter<ListTableModel<T>, Integer> {
+
+    // Rows a search left visible, null when there is none
+    private BitSet visible;
+
+    public ListRowSorter(ListTableModel<T> model) {
+        setModelWrapper(new ModelWrapper<ListTableModel<T>, Integer>() {
+            @Override
+            public ListTableModel<T> getModel() {
+                return model;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return model.getColumnCount();
+            }
+
+            @Override
+            public int getRowCount() {
+                return model.getRowCount();
+            }
+
+            // The entity: the comparators below read what they need from it
+            @Override
+            public Object getValueAt(int row, int column) {
+                return model.getRow(row);
+            }
+
+            @Override
+            public String getStringValueAt(int row, int column) {
+                Object value = model.getValueAt(row, column);
+                return value != null ? value.toString() : "";
+            }
+
+            @Override
+            public Integer getIdentifier(int row) {
+                return row;
+            }
+        });
+        Collator collator = Collator.getInstance();
+        for (int column = 0; column < model.getColumnCount(); column++) {
+            int c = column;
+            setComparator(column, Comparator.comparing((T entity) -> text(model.getValue(entity, c)), collator));
+        }
+    }
+
+    // Sorts the column by an int of the entity
+    public void setIntColumn(int column, ToIntFunction<T> key) {
+        setComparator(column, Comparator.comparingInt(key));
+    }
+
+    // Shows only the model rows whose bit is set; null shows every row
+    public void setVisibleRows(BitSet rows) {
+        visible = rows;
+        if (rows == null) {
+            setRowFilter(null);
+            return;
+        }
+        setRowFilter(new RowFilter<ListTableModel<T>, Integer>() {
+            @Override
+            public boolean include(Entry<? extends ListTableModel<T>, ? extends Integer> entry) {
+                return rows.get(entry.getIdentifier());
+            }
+        });
+    }
+
+    // Makes rows about to be added visible under the current search (new entities
+    // are shown even if they would not match it)
+    public void includeRows(int from, int to) {
+        if (visible != null && from < to) visible.set(from, to);
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
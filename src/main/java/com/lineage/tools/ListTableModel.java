@@ -0,0 +1,174 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import javax.swing.table.AbstractTableModel;
+
+// Read-only table model over a list of entities (a manager's list or a search
+// result). Cells are computed when JTable paints them, so only the visible rows
+// cost anything, and showing another list is a single change event.
+// The row count is the one last reported to the table, so rows added to the
+// list only show up (and rows removed only go) with the event announcing them.
+public class ListTableModel<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] columnNames;
+    private final List<Function<T, Object>> columns;
+    private List<T> rows = List.of();
+    private int rowCount;
+
+    @SafeVarargs
+    public ListTableModel(String[] columnNames, Function<T, Object>... columns) {
+        if (columnNames.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columnNames.length + " columns, got " + columns.length);
+        }
+        this.columnNames = columnNames.clone();
+        List<Function<T, Object>> copy = new ArrayList<>(columns.length);
+        for (Function<T, Object> column : columns) {
+            copy.add(column);
+        }
+        this.columns = copy;
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    // The list is read, not copied: changes to it must be reported through the
+    // methods below (or another setRows)
+    public void setRows(List<T> rows) {
+        this.rows = rows;
+        this.rowCount = rows.size();
+        fireTableDataChanged();
+    }
+
+    // Null for a row removed from the list but not reported yet
+    public T getRow(int row) {
+        return row < rows.size() ? rows.get(row) : null;
+    }
+
+    // Position of the entity itself (not an equal one), or -1
+    public int indexOf(T entity) {
+        int count = Math.min(rowCount, rows.size());
+        for (int i = 0; i < count; i++) {
+            if (rows.get(i) == entity) return i;
+        }
+        return -1;
+    }
+
+    // Positions of the given entities as a row set. Search results come in list
+    // order, which makes this a single merge walk; anything else falls back to
+    // an identity lookup. Entities not in the list are left out.
+    public BitSet rowsOf(List<T> subset) {
+        BitSet bits = new BitSet(rows.size());
+        int row = 0;
+        for (T entity : subset) {
+            while (row < rows.size() && rows.get(row) != entity) row++;
+            if (row == rows.size()) return rowsOfUnordered(subset);
+            bits.set(row++);
+        }
+        return bits;
+    }
+
+    private BitSet rowsOfUnordered(List<T> subset) {
+        Set<T> wanted = Collections.newSetFromMap(new IdentityHashMap<>(subset.size() * 2));
+        wanted.addAll(subset);
+        BitSet bits = new BitSet(rows.size());
+        for (int row = 0; row < rows.size(); row++) {
+            if (wanted.contains(rows.get(row))) bits.set(row);
+        }
+        return bits;
+    }
+
+    // Entities were appended to the list
+    public void rowsAppended() {
+        int from = rowCount;
+        if (rows.size() < from) {
+            setRows(rows);
+        } else if (rows.size() > from) {
+            rowCount = rows.size();
+            fireTableRowsInserted(from, rowCount - 1);
+        }
+    }
+
+    // Entities of the list were changed in place: one event spanning their rows
+    public void rowsUpdated(Collection<T> entities) {
+        if (entities.isEmpty()) return;
+        Set<T> changed = Collections.newSetFromMap(new IdentityHashMap<>(entities.size() * 2));
+        changed.addAll(entities);
+        int first = -1;
+        int last = -1;
+        int count = Math.min(rowCount, rows.size());
+        for (int row = 0; row < count; row++) {
+            if (changed.contains(rows.get(row))) {
+                if (first < 0) first = row;
+                last = row;
+            }
+        }
+        if (first >= 0) fireTableRowsUpdated(first, last);
+    }
+
+    // The list was edited in some way: rows keep their selection if the count did not change
+    public void rowsChanged() {
+        if (rows.size() != rowCount) {
+            setRows(rows);
+        } else if (rowCount > 0) {
+            fireTableRowsUpdated(0, rowCount - 1);
+        }
+    }
+
+    // Cell value of an entity, whether or not it is shown
+    public Object getValue(T entity, int column) {
+        return columns.get(column).apply(entity);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T entity = getRow(row);
+        return entity != null ? getValue(entity, column) : null;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+// Progress and cancellation hook for loads running off the EDT. Parsers report
+// the bytes they consume (possibly from several threads at once) and stop with an
+// InterruptedIOException as soon as isCancelled() turns true.
+public interface LoadMonitor {
+
+    LoadMonitor NONE = new LoadMonitor() {
+        @Override
+        public void bytesRead(long count) {}
+
+        @Override
+        public boolean isCancelled() { return false; }
+    };
+
+    void bytesRead(long count);
+
+    boolean isCancelled();
+
+    default InputStream monitor(InputStream in) {
+        return this == NONE ? in : new MonitoredInputStream(in, this);
+    }
+
+    class MonitoredInputStream extends FilterInputStream {
+        private final LoadMonitor monitor;
+
+        MonitoredInputStream(InputStream in, LoadMonitor monitor) {
+            super(in);
+            this.monitor = monitor;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkCancelled();
+            int b = super.read();
+            if (b >= 0) monitor.bytesRead(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            int n = super.read(b, off, len);
+            if (n > 0) monitor.bytesRead(n);
+            return n;
+        }
+
+        private void checkCancelled() throws InterruptedIOException {
+            if (monitor.isCancelled()) {
+                throw new InterruptedIOException("Load cancelled");
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import javax.swing.*;
+import java.awt.*;
+import java.beans.PropertyChangeListener;
+
+// Status bar widget for a running LoadWorker: bytes read so far and a cancel button.
+// Hidden while nothing is loading.
+public class LoadProgressPanel extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JButton btnCancel;
+    private LoadWorker<?> worker;
+
+    public LoadProgressPanel(String cancelText) {
+        super(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        progressBar.setStringPainted(true);
+        progressBar.setPreferredSize(new Dimension(220, progressBar.getPreferredSize().height));
+        btnCancel = new JButton(cancelText);
+        btnCancel.addActionListener(e -> {
+            if (worker != null) worker.cancel(true);
+        });
+        add(progressBar);
+        add(btnCancel);
+        setVisible(false);
+    }
+
+    // Shows the panel until the worker is done, then hides it again
+    public void track(LoadWorker<?> worker) {
+        this.worker = worker;
+        progressBar.setValue(0);
+        progressBar.setString(formatBytes(worker));
+        setVisible(true);
+
+        PropertyChangeListener listener = new PropertyChangeListener() {
+            @Override
+            public void propertyChange(java.beans.PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName())) {
+                    progressBar.setValue((Integer) evt.getNewValue());
+                    progressBar.setString(formatBytes(worker));
+                } else if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                    worker.removePropertyChangeListener(this);
+                    if (LoadProgressPanel.this.worker == worker) {
+                        LoadProgressPanel.this.worker = null;
+                        setVisible(false);
+                    }
+                }
+            }
+        };
+        worker.addPropertyChangeListener(listener);
+    }
+
+    private static String formatBytes(LoadWorker<?> worker) {
+        return String.format("%.1f / %.1f MB", worker.getBytesRead() / 1048576.0, worker.getTotalBytes() / 1048576.0);
+    }
+}
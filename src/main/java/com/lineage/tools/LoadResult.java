@@ -0,0 +1,57 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+// Everything a manager needs to install a finished load. Built off the EDT
+// without touching the manager, applied on the EDT in one step.
+public class LoadResult<T> {
+
+    private final List<T> entries;
+    private final Map<File, SnapshotCache.Key> fileKeys;
+    private final File source;
+    private final boolean directory;
+    private final StringPool strings;
+
+    // source is the file or the split datapack folder that was read, strings
+    // the pool its entries were deduplicated through
+    public LoadResult(List<T> entries, Map<File, SnapshotCache.Key> fileKeys, File source, boolean directory,
+                      StringPool strings) {
+        this.entries = entries;
+        this.fileKeys = fileKeys;
+        this.source = source;
+        this.directory = directory;
+        this.strings = strings;
+    }
+
+    public List<T> getEntries() { return entries; }
+    public Map<File, SnapshotCache.Key> getFileKeys() { return fileKeys; }
+    public File getSource() { return source; }
+    public File getSourceDirectory() { return directory ? source : null; }
+    public StringPool getStrings() { return strings; }
+
+    public int getFileCount() { return fileKeys.size(); }
+}
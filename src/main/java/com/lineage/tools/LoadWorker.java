@@ -0,0 +1,114 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import javax.swing.SwingWorker;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Runs a manager load off the EDT. Entries are published while they are read and
+// reach the listener in batches on the EDT; progress is the share of bytes read.
+// Cancelling stops the parser at its next read and leaves the manager untouched.
+public class LoadWorker<T> extends SwingWorker<LoadResult<T>, T> {
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        LoadResult<T> load(Consumer<T> sink, LoadMonitor monitor) throws Exception;
+    }
+
+    // All methods are called on the EDT
+    public interface Listener<T> {
+        void loaded(List<T> batch);
+
+        void finished(LoadResult<T> result);
+
+        void failed(Exception e);
+
+        default void cancelled() {}
+    }
+
+    private final long totalBytes;
+    private final Loader<T> loader;
+    private final Listener<T> listener;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private int delivered;
+    private boolean done;
+
+    public LoadWorker(long totalBytes, Loader<T> loader, Listener<T> listener) {
+        this.totalBytes = Math.max(totalBytes, 1);
+        this.loader = loader;
+        this.listener = listener;
+    }
+
+    public long getBytesRead() { return Math.min(bytesRead.get(), totalBytes); }
+    public long getTotalBytes() { return totalBytes; }
+
+    @Override
+    protected LoadResult<T> doInBackground() throws Exception {
+        LoadMonitor monitor = new LoadMonitor() {
+            @Override
+            public void bytesRead(long count) {
+                long read = bytesRead.addAndGet(count);
+                setProgress((int) Math.min(100, read * 100 / totalBytes));
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return LoadWorker.this.isCancelled();
+            }
+        };
+        return loader.load(this::publish, monitor);
+    }
+
+    @Override
+    protected void process(List<T> chunks) {
+        // Chunks can still arrive after done(), which already delivered them
+        if (done || isCancelled()) return;
+        delivered += chunks.size();
+        listener.loaded(chunks);
+    }
+
+    @Override
+    protected void done() {
+        done = true;
+        if (isCancelled()) {
+            listener.cancelled();
+            return;
+        }
+        try {
+            LoadResult<T> result = get();
+            List<T> entries = result.getEntries();
+            if (delivered < entries.size()) {
+                listener.loaded(entries.subList(delivered, entries.size()));
+            }
+            listener.finished(result);
+        } catch (ExecutionException e) {
+            listener.failed(e.getCause() instanceof Exception ex ? ex : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            listener.failed(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Which ids of a manager were added, removed or updated by an operation
+public class ModelChange {
+
+    private final Set<Integer> added = new LinkedHashSet<>();
+    private final Set<Integer> removed = new LinkedHashSet<>();
+    private final Set<Integer> updated = new LinkedHashSet<>();
+    // Row each id in removed was taken from, while recording
+    private final Map<Integer, Integer> removedRows = new HashMap<>();
+    // The whole list was replaced (a load or reload): the ids are not tracked then
+    private boolean reset;
+
+    public Set<Integer> getAdded() { return added; }
+    public Set<Integer> getRemoved() { return removed; }
+    public Set<Integer> getUpdated() { return updated; }
+    public boolean isReset() { return reset; }
+
+    public boolean isEmpty() {
+        return !reset && added.isEmpty() && removed.isEmpty() && updated.isEmpty();
+    }
+
+    // Recording a sequence of edits (see ChangeBus): an id removed and added again
+    // at the same row counts as updated, one added and removed again drops out.
+    // Added again at another row it stays both removed and added, since the
+    // rows in between moved.
+    public void noteAdded(int id, int row) {
+        if (reset) return;
+        Integer from = removedRows.get(id);
+        if (from != null && from == row) {
+            removed.remove(id);
+            removedRows.remove(id);
+            updated.add(id);
+        } else {
+            added.add(id);
+        }
+    }
+
+    public void noteRemoved(int id, int row) {
+        if (reset) return;
+        updated.remove(id);
+        if (!added.remove(id)) {
+            removed.add(id);
+            removedRows.put(id, row);
+        }
+    }
+
+    public void noteUpdated(int id) {
+        if (reset || added.contains(id)) return;
+        updated.add(id);
+    }
+
+    public void noteReset() {
+        reset = true;
+        added.clear();
+        removed.clear();
+        removedRows.clear();
+        updated.clear();
+    }
+
+    @Override
+    public String toString() {
+        if (reset) return "reset";
+        return "+" + added.size() + " -" + removed.size() + " ~" + updated.size();
+    }
+}
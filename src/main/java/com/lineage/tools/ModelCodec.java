@@ -0,0 +1,496 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact binary encoding of the skill/item/skill tree model. Every distinct string is written
+// once and referenced by index afterwards, so repeated set names cost a few bytes.
+// One codec instance per stream: the string table is shared by everything written
+// (or read) through it.
+public class ModelCodec {
+
+    private static final int NULL = -1;
+
+    // How a lazily loadable subtree is stored
+    private static final byte ABSENT = 0;
+    private static final byte PARSED = 1;
+    private static final byte RAW = 2;
+
+    private final Map<String, Integer> writeTable = new HashMap<>();
+    private final List<String> readTable = new ArrayList<>();
+
+    // Stand-alone encoding of one skill, used to compare two skills by content
+    public static byte[] encode(Skill skill) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            new ModelCodec().writeSkill(new DataOutputStream(bytes), skill);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Deep copy of a skill (raw subtrees stay raw), e.g. to save it off the EDT
+    public static Skill copy(Skill skill) {
+        try {
+            Skill copy = new ModelCodec().readSkill(new DataInputStream(new ByteArrayInputStream(encode(skill))));
+            copy.setSourceFile(skill.getSourceFile());
+            return copy;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] encode(Item item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            new ModelCodec().writeItem(new DataOutputStream(bytes), item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Item copy(Item item) {
+        try {
+            return new ModelCodec().readItem(new DataInputStream(new ByteArrayInputStream(encode(item))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ========== SKILLS ==========
+
+    public void writeSkill(DataOutput out, Skill skill) throws IOException {
+        out.writeInt(skill.getSkillId());
+        out.writeInt(skill.getLevels());
+        writeString(out, skill.getName());
+        writeString(out, skill.getEnchantGroup1());
+        writeString(out, skill.getEnchantGroup2());
+        writeString(out, skill.getEnchantGroup3());
+        writeString(out, skill.getEnchantGroup4());
+
+        out.writeInt(skill.getSets().size());
+        for (SkillSet set : skill.getSets()) {
+            writeString(out, set.getName());
+            writeString(out, set.getVal());
+        }
+
+        out.writeInt(skill.getTables().size());
+        for (SkillTable table : skill.getTables()) {
+            writeString(out, table.getName());
+            writeString(out, table.getValues());
+        }
+
+        // Raw subtrees of a lazy load stay raw, so storing a snapshot parses nothing
+        SkillConditions conditions = skill.getRawConditions() == null ? skill.getConditions() : null;
+        if (skill.getRawConditions() != null) {
+            writeRaw(out, skill.getRawConditions());
+        } else if (conditions == null) {
+            out.writeByte(ABSENT);
+        } else {
+            out.writeByte(PARSED);
+            writeString(out, conditions.getMsgId());
+            writeString(out, conditions.getAddName());
+            writeUsing(out, conditions.getUsing());
+            SkillAnd and = conditions.getAnd();
+            out.writeBoolean(and != null);
+            if (and != null) {
+                writeUsing(out, and.getUsing());
+                writeTarget(out, and.getTarget());
+                writePlayer(out, and.getPlayer());
+            }
+            writeTarget(out, conditions.getTarget());
+            writePlayer(out, conditions.getPlayer());
+        }
+
+        SkillEffects effects = skill.getRawEffects() == null ? skill.getEffects() : null;
+        if (skill.getRawEffects() != null) {
+            writeRaw(out, skill.getRawEffects());
+        } else if (effects == null) {
+            out.writeByte(ABSENT);
+        } else {
+            out.writeByte(PARSED);
+            out.writeInt(effects.getEffects().size());
+            for (SkillEffect effect : effects.getEffects()) {
+                writeString(out, effect.getName());
+                if (effect.getParams() == null) {
+                    out.writeInt(NULL);
+                } else {
+                    out.writeInt(effect.getParams().size());
+                    for (SkillParam param : effect.getParams()) {
+                        writeString(out, param.getStat());
+                        writeString(out, param.getVal());
+                        writeString(out, param.getPower());
+                        writeString(out, param.getTime());
+                        writeString(out, param.getChance());
+                    }
+                }
+                writeStats(out, effect.getMuls());
+                writeStats(out, effect.getAdds());
+                writeStats(out, effect.getSubs());
+                writeStats(out, effect.getSets());
+            }
+        }
+    }
+
+    public Skill readSkill(DataInput in) throws IOException {
+        Skill skill = new Skill();
+        skill.setSkillId(in.readInt());
+        skill.setLevels(in.readInt());
+        skill.setName(readString(in));
+        skill.setEnchantGroup1(readString(in));
+        skill.setEnchantGroup2(readString(in));
+        skill.setEnchantGroup3(readString(in));
+        skill.setEnchantGroup4(readString(in));
+
+        int sets = in.readInt();
+        List<SkillSet> setList = new ArrayList<>(sets);
+        for (int i = 0; i < sets; i++) {
+            SkillSet set = new SkillSet();
+            set.setName(readString(in));
+            set.setVal(readString(in));
+            setList.add(set);
+        }
+        skill.setSets(setList);
+
+        int tables = in.readInt();
+        List<SkillTable> tableList = new ArrayList<>(tables);
+        for (int i = 0; i < tables; i++) {
+            SkillTable table = new SkillTable();
+            table.setName(readString(in));
+            table.setValues(readString(in));
+            tableList.add(table);
+        }
+        skill.setTables(tableList);
+
+        byte conditionsKind = in.readByte();
+        if (conditionsKind == RAW) {
+            skill.setRawConditions(readRaw(in));
+        } else if (conditionsKind == PARSED) {
+            SkillConditions conditions = new SkillConditions();
+            conditions.setMsgId(readString(in));
+            conditions.setAddName(readString(in));
+            conditions.setUsing(readUsing(in));
+            if (in.readBoolean()) {
+                SkillAnd and = new SkillAnd();
+                and.setUsing(readUsing(in));
+                and.setTarget(readTarget(in));
+                and.setPlayer(readPlayer(in));
+                conditions.setAnd(and);
+            }
+            conditions.setTarget(readTarget(in));
+            conditions.setPlayer(readPlayer(in));
+            skill.setConditions(conditions);
+        }
+
+        byte effectsKind = in.readByte();
+        if (effectsKind == RAW) {
+            skill.setRawEffects(readRaw(in));
+        } else if (effectsKind == PARSED) {
+            SkillEffects effects = new SkillEffects();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                SkillEffect effect = new SkillEffect();
+                effect.setName(readString(in));
+                int params = in.readInt();
+                if (params != NULL) {
+                    List<SkillParam> paramList = new ArrayList<>(params);
+                    for (int p = 0; p < params; p++) {
+                        SkillParam param = new SkillParam();
+                        param.setStat(readString(in));
+                        param.setVal(readString(in));
+                        param.setPower(readString(in));
+                        param.setTime(readString(in));
+                        param.setChance(readString(in));
+                        paramList.add(param);
+                    }
+                    effect.setParams(paramList);
+                }
+                effect.setMuls(readStats(in));
+                effect.setAdds(readStats(in));
+                effect.setSubs(readStats(in));
+                effect.setSets(readStats(in));
+                effects.getEffects().add(effect);
+            }
+            skill.setEffects(effects);
+        }
+        return skill;
+    }
+
+    private static void writeRaw(DataOutput out, byte[] raw) throws IOException {
+        out.writeByte(RAW);
+        out.writeInt(raw.length);
+        out.write(raw);
+    }
+
+    private static byte[] readRaw(DataInput in) throws IOException {
+        byte[] raw = new byte[in.readInt()];
+        in.readFully(raw);
+        return raw;
+    }
+
+    private void writeUsing(DataOutput out, SkillUsing using) throws IOException {
+        out.writeBoolean(using != null);
+        if (using != null) {
+            writeString(out, using.getKind());
+        }
+    }
+
+    private SkillUsing readUsing(DataInput in) throws IOException {
+        if (!in.readBoolean()) return null;
+        SkillUsing using = new SkillUsing();
+        using.setKind(readString(in));
+        return using;
+    }
+
+    private void writeTarget(DataOutput out, SkillTarget target) throws IOException {
+        out.writeBoolean(target != null);
+        if (target != null) {
+            writeString(out, target.getRace());
+            writeString(out, target.getMindistance());
+            writeString(out, target.getAbnormal());
+        }
+    }
+
+    private SkillTarget readTarget(DataInput in) throws IOException {
+        if (!in.readBoolean()) return null;
+        SkillTarget target = new SkillTarget();
+        target.setRace(readString(in));
+        target.setMindistance(readString(in));
+        target.setAbnormal(readString(in));
+        return target;
+    }
+
+    private void writePlayer(DataOutput out, SkillPlayer player) throws IOException {
+        out.writeBoolean(player != null);
+        if (player != null) {
+            writeString(out, player.getHp());
+            writeString(out, player.getCharges());
+            writeString(out, player.getInvSize());
+            writeString(out, player.getWeight());
+        }
+    }
+
+    private SkillPlayer readPlayer(DataInput in) throws IOException {
+        if (!in.readBoolean()) return null;
+        SkillPlayer player = new SkillPlayer();
+        player.setHp(readString(in));
+        player.setCharges(readString(in));
+        player.setInvSize(readString(in));
+        player.setWeight(readString(in));
+        return player;
+    }
+
+    private void writeStats(DataOutput out, List<SkillStat> stats) throws IOException {
+        if (stats == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        out.writeInt(stats.size());
+        for (SkillStat stat : stats) {
+            writeString(out, stat.getStat());
+            writeString(out, stat.getVal());
+        }
+    }
+
+    private List<SkillStat> readStats(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count == NULL) return null;
+        List<SkillStat> stats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SkillStat stat = new SkillStat();
+            stat.setStat(readString(in));
+            stat.setVal(readString(in));
+            stats.add(stat);
+        }
+        return stats;
+    }
+
+    // ========== ITEMS ==========
+
+    public void writeItem(DataOutput out, Item item) throws IOException {
+        out.writeInt(item.getItemId());
+        writeString(out, item.getType());
+        writeString(out, item.getName());
+
+        out.writeInt(item.getSets().size());
+        for (ItemSet set : item.getSets()) {
+            writeString(out, set.getName());
+            writeString(out, set.getVal());
+        }
+
+        ItemStats stats = item.getStats();
+        out.writeBoolean(stats != null);
+        if (stats != null) {
+            out.writeInt(stats.getStats().size());
+            for (ItemStat stat : stats.getStats()) {
+                writeString(out, stat.getType());
+                writeString(out, stat.getValue());
+            }
+        }
+
+        ItemSkills skills = item.getSkills();
+        out.writeBoolean(skills != null);
+        if (skills != null) {
+            out.writeInt(skills.getSkills().size());
+            for (ItemSkill skill : skills.getSkills()) {
+                out.writeInt(skill.getId());
+                out.writeInt(skill.getLevel());
+            }
+        }
+    }
+
+    public Item readItem(DataInput in) throws IOException {
+        Item item = new Item();
+        item.setItemId(in.readInt());
+        item.setType(readString(in));
+        item.setName(readString(in));
+
+        int sets = in.readInt();
+        List<ItemSet> setList = new ArrayList<>(sets);
+        for (int i = 0; i < sets; i++) {
+            ItemSet set = new ItemSet();
+            set.setName(readString(in));
+            set.setVal(readString(in));
+            setList.add(set);
+        }
+        item.setSets(setList);
+
+        if (in.readBoolean()) {
+            int count = in.readInt();
+            List<ItemStat> statList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ItemStat stat = new ItemStat();
+                stat.setType(readString(in));
+                stat.setValue(readString(in));
+                statList.add(stat);
+            }
+            ItemStats stats = new ItemStats();
+            stats.setStats(statList);
+            item.setStats(stats);
+        }
+
+        if (in.readBoolean()) {
+            int count = in.readInt();
+            List<ItemSkill> skillList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ItemSkill skill = new ItemSkill();
+                skill.setId(in.readInt());
+                skill.setLevel(in.readInt());
+                skillList.add(skill);
+            }
+            ItemSkills skills = new ItemSkills();
+            skills.setSkills(skillList);
+            item.setSkills(skills);
+        }
+        return item;
+    }
+
+    // ========== SKILL TREES ==========
+
+    public void writeSkillTree(DataOutput out, SkillTreeClass tree) throws IOException {
+        writeString(out, tree.getType());
+        out.writeInt(tree.getClassId());
+        out.writeInt(tree.getParentClassId());
+
+        out.writeInt(tree.getSkills().size());
+        for (SkillTreeEntry entry : tree.getSkills()) {
+            writeString(out, entry.getSkillName());
+            out.writeInt(entry.getSkillId());
+            out.writeInt(entry.getSkillLevel());
+            out.writeInt(entry.getGetLevel());
+            out.writeInt(entry.getLevelUpSp());
+            out.writeBoolean(entry.isLearnedByNpc());
+        }
+    }
+
+    public SkillTreeClass readSkillTree(DataInput in) throws IOException {
+        SkillTreeClass tree = new SkillTreeClass();
+        tree.setType(readString(in));
+        tree.setClassId(in.readInt());
+        tree.setParentClassId(in.readInt());
+
+        int count = in.readInt();
+        List<SkillTreeEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SkillTreeEntry entry = new SkillTreeEntry();
+            entry.setSkillName(readString(in));
+            entry.setSkillId(in.readInt());
+            entry.setSkillLevel(in.readInt());
+            entry.setGetLevel(in.readInt());
+            entry.setLevelUpSp(in.readInt());
+            entry.setLearnedByNpc(in.readBoolean());
+            entries.add(entry);
+        }
+        tree.setSkills(entries);
+        return tree;
+    }
+
+    // ========== STRINGS ==========
+
+    // -1 = null, -2 = new string (UTF-8 bytes follow), >= 0 = index of a string seen before
+    private void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        Integer index = writeTable.get(value);
+        if (index != null) {
+            out.writeInt(index);
+            return;
+        }
+        writeTable.put(value, writeTable.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(-2);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInput in) throws IOException {
+        int index = in.readInt();
+        if (index == NULL) return null;
+        if (index >= 0) {
+            if (index >= readTable.size()) throw new IOException("Bad string reference " + index);
+            return readTable.get(index);
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        readTable.add(value);
+        return value;
+    }
+}
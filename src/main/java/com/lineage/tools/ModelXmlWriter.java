@@ -0,0 +1,280 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Writes the model as XML without going through JAXB. The output is the same as
+// the JAXB mapping with JAXB_FORMATTED_OUTPUT (see XmlOutput), element by element
+// in the order of the annotated fields. Conditions/effects still held raw by a
+// lazy load are copied as they are, without parsing them first.
+public class ModelXmlWriter {
+
+    private ModelXmlWriter() {}
+
+    // Returns the number of bytes written
+    public static long writeSkills(File file, List<Skill> skills) throws IOException {
+        return replace(file, channel -> {
+            XmlOutput out = new XmlOutput(channel);
+            out.startDocument();
+            out.start("list");
+            for (Skill skill : skills) {
+                writeSkill(out, skill);
+            }
+            out.end();
+            out.endDocument();
+            return out.getBytesWritten();
+        });
+    }
+
+    public static long writeItems(File file, List<Item> items) throws IOException {
+        return replace(file, channel -> {
+            XmlOutput out = new XmlOutput(channel);
+            out.startDocument();
+            out.start("list");
+            for (Item item : items) {
+                writeItem(out, item);
+            }
+            out.end();
+            out.endDocument();
+            return out.getBytesWritten();
+        });
+    }
+
+    public static long writeSkillTrees(File file, List<SkillTreeClass> classTrees) throws IOException {
+        return replace(file, channel -> {
+            XmlOutput out = new XmlOutput(channel);
+            out.startDocument();
+            out.start("list");
+            for (SkillTreeClass tree : classTrees) {
+                writeSkillTree(out, tree);
+            }
+            out.end();
+            out.endDocument();
+            return out.getBytesWritten();
+        });
+    }
+
+    @FunctionalInterface
+    interface Body {
+        long write(FileChannel out) throws IOException;
+    }
+
+    // Writes to a temp file next to the target, forces it to disk and renames
+    // it over the target, so a crash or a full disk never leaves a truncated
+    // file behind: readers see either the old content or the new one
+    static long replace(File file, Body body) throws IOException {
+        Path target = file.getAbsoluteFile().toPath();
+        Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            if (Files.exists(target) && Files.getFileStore(temp).supportsFileAttributeView("posix")) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+            }
+            long written;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                written = body.write(out);
+                out.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return written;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // ========== SKILLS ==========
+
+    static void writeSkill(XmlOutput out, Skill skill) throws IOException {
+        out.start("skill")
+            .attr("id", skill.getSkillId())
+            .attr("levels", skill.getLevels())
+            .attr("name", skill.getName())
+            .attr("enchantGroup1", skill.getEnchantGroup1())
+            .attr("enchantGroup2", skill.getEnchantGroup2())
+            .attr("enchantGroup3", skill.getEnchantGroup3())
+            .attr("enchantGroup4", skill.getEnchantGroup4());
+        if (skill.getSets() != null) {
+            for (SkillSet set : skill.getSets()) {
+                out.start("set").attr("name", set.getName()).attr("val", set.getVal()).end();
+            }
+        }
+        if (skill.getTables() != null) {
+            for (SkillTable table : skill.getTables()) {
+                out.start("table").attr("name", table.getName()).text(table.getValues()).end();
+            }
+        }
+
+        // Raw subtrees must be checked first, the getters would parse them
+        byte[] rawConditions = skill.getRawConditions();
+        if (rawConditions != null) {
+            out.raw(rawConditions);
+        } else if (skill.getConditions() != null) {
+            writeConditions(out, skill.getConditions());
+        }
+        byte[] rawEffects = skill.getRawEffects();
+        if (rawEffects != null) {
+            out.raw(rawEffects);
+        } else if (skill.getEffects() != null) {
+            writeEffects(out, skill.getEffects());
+        }
+        out.end();
+    }
+
+    private static void writeConditions(XmlOutput out, SkillConditions conditions) throws IOException {
+        out.start("conditions")
+            .attr("msgId", conditions.getMsgId())
+            .attr("addName", conditions.getAddName());
+        writeUsing(out, conditions.getUsing());
+        if (conditions.getAnd() != null) {
+            SkillAnd and = conditions.getAnd();
+            out.start("and");
+            writeUsing(out, and.getUsing());
+            writeTarget(out, and.getTarget());
+            writePlayer(out, and.getPlayer());
+            out.end();
+        }
+        writeTarget(out, conditions.getTarget());
+        writePlayer(out, conditions.getPlayer());
+        out.end();
+    }
+
+    private static void writeUsing(XmlOutput out, SkillUsing using) throws IOException {
+        if (using == null) return;
+        out.start("using").attr("kind", using.getKind()).end();
+    }
+
+    private static void writeTarget(XmlOutput out, SkillTarget target) throws IOException {
+        if (target == null) return;
+        out.start("target")
+            .attr("race", target.getRace())
+            .attr("mindistance", target.getMindistance())
+            .attr("abnormal", target.getAbnormal())
+            .end();
+    }
+
+    private static void writePlayer(XmlOutput out, SkillPlayer player) throws IOException {
+        if (player == null) return;
+        out.start("player")
+            .attr("hp", player.getHp())
+            .attr("Charges", player.getCharges())
+            .attr("invSize", player.getInvSize())
+            .attr("weight", player.getWeight())
+            .end();
+    }
+
+    private static void writeEffects(XmlOutput out, SkillEffects effects) throws IOException {
+        out.start("effects");
+        if (effects.getEffects() != null) {
+            for (SkillEffect effect : effects.getEffects()) {
+                out.start("effect").attr("name", effect.getName());
+                if (effect.getParams() != null) {
+                    for (SkillParam param : effect.getParams()) {
+                        out.start("param")
+                            .attr("stat", param.getStat())
+                            .attr("val", param.getVal())
+                            .attr("power", param.getPower())
+                            .attr("time", param.getTime())
+                            .attr("chance", param.getChance())
+                            .end();
+                    }
+                }
+                writeStats(out, "mul", effect.getMuls());
+                writeStats(out, "add", effect.getAdds());
+                writeStats(out, "sub", effect.getSubs());
+                writeStats(out, "set", effect.getSets());
+                out.end();
+            }
+        }
+        out.end();
+    }
+
+    private static void writeStats(XmlOutput out, String element, List<SkillStat> stats) throws IOException {
+        if (stats == null) return;
+        for (SkillStat stat : stats) {
+            out.start(element).attr("stat", stat.getStat()).attr("val", stat.getVal()).end();
+        }
+    }
+
+    // ========== ITEMS ==========
+
+    static void writeItem(XmlOutput out, Item item) throws IOException {
+        out.start("item")
+            .attr("id", item.getItemId())
+            .attr("type", item.getType())
+            .attr("name", item.getName());
+        if (item.getSets() != null) {
+            for (ItemSet set : item.getSets()) {
+                out.start("set").attr("name", set.getName()).attr("val", set.getVal()).end();
+            }
+        }
+        if (item.getStats() != null) {
+            out.start("stats");
+            if (item.getStats().getStats() != null) {
+                for (ItemStat stat : item.getStats().getStats()) {
+                    out.start("stat").attr("type", stat.getType()).text(stat.getValue()).end();
+                }
+            }
+            out.end();
+        }
+        if (item.getSkills() != null) {
+            out.start("skills");
+            if (item.getSkills().getSkills() != null) {
+                for (ItemSkill skill : item.getSkills().getSkills()) {
+                    out.start("skill").attr("id", skill.getId()).attr("level", skill.getLevel()).end();
+                }
+            }
+            out.end();
+        }
+        out.end();
+    }
+
+    // ========== SKILL TREES ==========
+
+    static void writeSkillTree(XmlOutput out, SkillTreeClass tree) throws IOException {
+        out.start("skillTree")
+            .attr("type", tree.getType())
+            .attr("classId", tree.getClassId())
+            .attr("parentClassId", tree.getParentClassId());
+        if (tree.getSkills() != null) {
+            for (SkillTreeEntry entry : tree.getSkills()) {
+                out.start("skill")
+                    .attr("skillName", entry.getSkillName())
+                    .attr("skillId", entry.getSkillId())
+                    .attr("skillLevel", entry.getSkillLevel())
+                    .attr("getLevel", entry.getGetLevel())
+                    .attr("levelUpSp", entry.getLevelUpSp())
+                    .attr("learnedByNpc", entry.isLearnedByNpc())
+                    .end();
+            }
+        }
+        out.end();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+// Name -> element lookup over one of the small <set>/<table>/<stat> lists of a
+// model object: an open-addressed table of list positions (short, so a skill
+// with a dozen sets costs a 32-slot array), probed by the name's cached hash.
+// Like the linear scans it replaces, the first element with a name wins.
+//
+// Owners build it on first use and drop it when the list is replaced. They
+// keep their lists as a Tracked list, which counts every change made in place
+// (add, remove, set, sort, ...), and the index is rebuilt when the count moved;
+// any other list is only checked by its size, see isCurrent.
+final class NameIndex<T> {
+
+    private static final NameIndex<?> EMPTY = new NameIndex<>(List.of(), null);
+
+    private final Function<T, String> nameOf;
+    private final short[] slots;   // position + 1, 0 = free; null = too long, scan
+    private final int size;
+    private final int changes;     // Tracked.changes() when built, -1 otherwise
+
+    private NameIndex(List<T> list, Function<T, String> nameOf) {
+        this.nameOf = nameOf;
+        this.size = list.size();
+        this.changes = list instanceof Tracked<?> tracked ? tracked.changes() : -1;
+        if (size >= Short.MAX_VALUE) {
+            this.slots = null;
+            return;
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, size * 2 - 1)) << 1;
+        this.slots = new short[Math.max(2, capacity)];
+        int mask = slots.length - 1;
+        for (int position = 0; position < size; position++) {
+            String name = nameOf.apply(list.get(position));
+            if (name == null) continue;
+            int i = spread(name.hashCode()) & mask;
+            while (slots[i] != 0) {
+                if (name.equals(nameOf.apply(list.get(slots[i] - 1)))) break;
+                i = (i + 1) & mask;
+            }
+            if (slots[i] == 0) slots[i] = (short) (position + 1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> NameIndex<T> of(List<T> list, Function<T, String> nameOf) {
+        if (list == null || list.isEmpty()) return (NameIndex<T>) EMPTY;
+        return new NameIndex<>(list, nameOf);
+    }
+
+    boolean isCurrent(List<T> list) {
+        if ((list == null ? 0 : list.size()) != size) return false;
+        // Untracked lists, and the shared index of empty ones, go by size
+        return changes < 0 || !(list instanceof Tracked<?> tracked) || tracked.changes() == changes;
+    }
+
+    T get(List<T> list, String name) {
+        if (size == 0 || name == null) return null;
+        if (slots == null) {
+            for (T element : list) {
+                if (name.equals(nameOf.apply(element))) return element;
+            }
+            return null;
+        }
+        int mask = slots.length - 1;
+        int i = spread(name.hashCode()) & mask;
+        int slot;
+        while ((slot = slots[i]) != 0) {
+            T element = list.get(slot - 1);
+            if (name.equals(nameOf.apply(element))) return element;
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    // The list itself when it is already tracked, otherwise a tracked copy
+    static <T> List<T> track(List<T> list) {
+        return list == null || list instanceof Tracked ? list : new Tracked<>(list);
+    }
+
+    // ArrayList whose change count also covers set(), which ArrayList's own
+    // modCount leaves out. Writes through subList().set() are not counted.
+    static final class Tracked<T> extends ArrayList<T> {
+
+        private static final long serialVersionUID = 1L;
+
+        Tracked() {}
+
+        Tracked(Collection<? extends T> values) {
+            super(values);
+        }
+
+        @Override
+        public T set(int index, T element) {
+            modCount++;
+            return super.set(index, element);
+        }
+
+        int changes() {
+            return modCount;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import javax.swing.SwingUtilities;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Runs the live search of an editor off the EDT. Every keystroke replaces the
+// pending query, which only starts once typing has paused for the delay;
+// queries run one at a time on a single search thread. Each submit() bumps a
+// generation counter, and a result is handed to the table only if no newer
+// text was submitted (or cancel() called) in the meantime, so a slow query can
+// never overwrite a newer one.
+public class SearchScheduler<R> implements AutoCloseable {
+
+    public static final long DEFAULT_DELAY_MILLIS = 150;
+
+    @FunctionalInterface
+    public interface Query<R> {
+        R run(String text);
+    }
+
+    private final ScheduledExecutorService searcher;
+    private final long delayMillis;
+    private final Consumer<R> onResult;
+
+    private ScheduledFuture<?> pending;
+    private volatile long generation;
+
+    // onResult is called on the EDT
+    public SearchScheduler(String name, long delayMillis, Consumer<R> onResult) {
+        this.delayMillis = delayMillis;
+        this.onResult = onResult;
+        this.searcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized void submit(String text, Query<R> query) {
+        long current = ++generation;
+        if (pending != null) pending.cancel(false);
+        pending = searcher.schedule(() -> run(current, text, query), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Drops the pending query and any result still on its way, e.g. when the
+    // table is about to be refreshed directly
+    public synchronized void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    private void run(long current, String text, Query<R> query) {
+        if (current != generation) return;
+        R result = query.run(text);
+        SwingUtilities.invokeLater(() -> {
+            if (current == generation) onResult.accept(result);
+        });
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        searcher.shutdown();
+    }
+}
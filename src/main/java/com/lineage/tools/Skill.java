@@ -22,7 +22,11 @@ SOFTWARE.
 
 package com.lineage.tools;
 
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.*;
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
 import java.util.*;
 
 @XmlAccessorType(XmlAccessType.FIELD)
@@ -50,10 +54,10 @@ public class Skill {
     private String enchantGroup4;
     
     @XmlElement(name = "set")
-    private List<SkillSet> sets = new ArrayList<>();
+    private List<SkillSet> sets = new NameIndex.Tracked<>();
     
     @XmlElement(name = "table")
-    private List<SkillTable> tables = new ArrayList<>();
+    private List<SkillTable> tables = new NameIndex.Tracked<>();
     
     @XmlElement(name = "conditions")
     private SkillConditions conditions;
@@ -61,6 +65,29 @@ public class Skill {
     @XmlElement(name = "effects")
     private SkillEffects effects;
     
+    // File the skill was loaded from (split datapacks), not part of the XML
+    @XmlTransient
+    private File sourceFile;
+    
+    // Lazy loading: raw UTF-8 XML of <conditions>/<effects> until first use
+    @XmlTransient
+    private byte[] rawConditions;
+    
+    @XmlTransient
+    private byte[] rawEffects;
+    
+    // Pool of the load, for the subtrees still raw
+    @XmlTransient
+    private StringPool strings;
+    
+    // Built on first getSetValue/getTable, dropped by setSets/setTables and
+    // rebuilt after the list changed in place (see NameIndex)
+    @XmlTransient
+    private NameIndex<SkillSet> setIndex;
+    
+    @XmlTransient
+    private NameIndex<SkillTable> tableIndex;
+    
     // Construtor padrão
     public Skill() {}
     
@@ -87,32 +114,93 @@ public class Skill {
     public void setEnchantGroup4(String enchantGroup4) { this.enchantGroup4 = enchantGroup4; }
     
     public List<SkillSet> getSets() { return sets; }
-    public void setSets(List<SkillSet> sets) { this.sets = sets; }
+    public void setSets(List<SkillSet> sets) {
+        this.sets = NameIndex.track(sets);
+        this.setIndex = null;
+    }
     
     public List<SkillTable> getTables() { return tables; }
-    public void setTables(List<SkillTable> tables) { this.tables = tables; }
+    public void setTables(List<SkillTable> tables) {
+        this.tables = NameIndex.track(tables);
+        this.tableIndex = null;
+    }
+    
+    public SkillConditions getConditions() {
+        if (rawConditions != null) materialize();
+        return conditions;
+    }
+    public void setConditions(SkillConditions conditions) {
+        this.conditions = conditions;
+        this.rawConditions = null;
+    }
+    
+    public SkillEffects getEffects() {
+        if (rawEffects != null) materialize();
+        return effects;
+    }
+    public void setEffects(SkillEffects effects) {
+        this.effects = effects;
+        this.rawEffects = null;
+    }
+    
+    byte[] getRawConditions() { return rawConditions; }
+    void setRawConditions(byte[] rawConditions) {
+        this.rawConditions = rawConditions;
+        this.conditions = null;
+    }
+    
+    byte[] getRawEffects() { return rawEffects; }
+    void setRawEffects(byte[] rawEffects) {
+        this.rawEffects = rawEffects;
+        this.effects = null;
+    }
     
-    public SkillConditions getConditions() { return conditions; }
-    public void setConditions(SkillConditions conditions) { this.conditions = conditions; }
+    void keepStrings(StringPool strings) { this.strings = strings; }
     
-    public SkillEffects getEffects() { return effects; }
-    public void setEffects(SkillEffects effects) { this.effects = effects; }
+    public boolean isMaterialized() {
+        return rawConditions == null && rawEffects == null;
+    }
+    
+    // Parses the subtrees kept raw by a lazy load. JAXB reads the fields directly,
+    // so this must also run before marshalling.
+    public synchronized void materialize() {
+        try {
+            if (rawConditions != null) {
+                conditions = SkillXmlReader.parseConditions(rawConditions);
+                if (strings != null) strings.dedupe(conditions);
+                rawConditions = null;
+            }
+            if (rawEffects != null) {
+                effects = SkillXmlReader.parseEffects(rawEffects);
+                if (strings != null) strings.dedupe(effects);
+                rawEffects = null;
+            }
+            strings = null;
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Skill " + skillId + ": " + e.getMessage(), e);
+        }
+    }
+    
+    public File getSourceFile() { return sourceFile; }
+    public void setSourceFile(File sourceFile) { this.sourceFile = sourceFile; }
     
     // Método auxiliar para pegar valor de um set específico
     public String getSetValue(String setName) {
-        return sets.stream()
-                .filter(s -> s.getName().equals(setName))
-                .map(SkillSet::getVal)
-                .findFirst()
-                .orElse(null);
+        NameIndex<SkillSet> index = setIndex;
+        if (index == null || !index.isCurrent(sets)) {
+            setIndex = index = NameIndex.of(sets, SkillSet::getName);
+        }
+        SkillSet set = index.get(sets, setName);
+        return set != null ? set.getVal() : null;
     }
     
     // Método auxiliar para pegar tabela específica
     public SkillTable getTable(String tableName) {
-        return tables.stream()
-                .filter(t -> t.getName().equals(tableName))
-                .findFirst()
-                .orElse(null);
+        NameIndex<SkillTable> index = tableIndex;
+        if (index == null || !index.isCurrent(tables)) {
+            tableIndex = index = NameIndex.of(tables, SkillTable::getName);
+        }
+        return index.get(tables, tableName);
     }
     
     @Override
@@ -147,24 +235,195 @@ class SkillTable {
     @XmlAttribute(name = "name")
     private String name;
     
+    // The XML text. Dropped by parse() when the parsed values give it back
+    // exactly (separated by single spaces, numbers written the way Java writes
+    // them), which is most tables; the others keep it for stringAt and saving.
     @XmlValue
     private String values;
     
+    // The values parsed once, one per level: int[] when every value is an
+    // integer, double[] when every value is a number, String[] otherwise.
+    @XmlTransient
+    private int[] intValues;
+    
+    @XmlTransient
+    private double[] doubleValues;
+    
+    @XmlTransient
+    private String[] stringValues;
+    
     public String getName() { return name; }
-    public String getValues() { return values; }
+    public String getValues() {
+        return values != null || size() == 0 ? values : text();
+    }
     public void setName(String name) { this.name = name; }
-    public void setValues(String values) { this.values = values; }
+    public void setValues(String values) {
+        this.values = values;
+        parse();
+    }
+    
+    // JAXB sets and reads the field directly
+    void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+        parse();
+    }
+    
+    void beforeMarshal(Marshaller marshaller) {
+        values = getValues();
+    }
+    
+    void afterMarshal(Marshaller marshaller) {
+        parse();
+    }
     
+    public int size() {
+        if (intValues != null) return intValues.length;
+        if (doubleValues != null) return doubleValues.length;
+        return stringValues != null ? stringValues.length : 0;
+    }
+    
+    public boolean isNumeric() { return intValues != null || doubleValues != null; }
+    public boolean isInteger() { return intValues != null; }
+    
+    // Value for a skill level (1-based, as in the datapack)
+    public double valueAt(int level) {
+        int index = Objects.checkIndex(level - 1, size());
+        if (intValues != null) return intValues[index];
+        if (doubleValues != null) return doubleValues[index];
+        throw new IllegalStateException("Table " + name + " is not numeric");
+    }
+    
+    public int intValueAt(int level) {
+        int index = Objects.checkIndex(level - 1, size());
+        if (intValues != null) return intValues[index];
+        return (int) valueAt(level);
+    }
+    
+    // The value exactly as the XML has it ("+5", "1e-3" stay as they are)
+    public String stringAt(int level) {
+        int index = Objects.checkIndex(level - 1, size());
+        if (stringValues != null || values == null) return format(index);
+        // Only numeric tables that could not be rebuilt keep their text
+        int i = 0;
+        for (int t = 0; ; t++) {
+            while (Character.isWhitespace(values.charAt(i))) i++;
+            int start = i;
+            while (i < values.length() && !Character.isWhitespace(values.charAt(i))) i++;
+            if (t == index) return values.substring(start, i);
+        }
+    }
+    
+    // Text form of every value. Allocates; loops should use valueAt.
     public List<String> getValuesList() {
-        if (values == null || values.trim().isEmpty()) {
+        if (stringValues != null) {
+            return Collections.unmodifiableList(Arrays.asList(stringValues));
+        }
+        if (values == null) {
+            List<String> list = new ArrayList<>(size());
+            for (int t = 0; t < size(); t++) {
+                list.add(format(t));
+            }
+            return list;
+        }
+        if (values.trim().isEmpty()) {
             return new ArrayList<>();
         }
-        return Arrays.asList(values.split(" "));
+        return Arrays.asList(values.trim().split("\\s+"));
+    }
+    
+    private String format(int index) {
+        if (stringValues != null) return stringValues[index];
+        return intValues != null ? Integer.toString(intValues[index]) : Double.toString(doubleValues[index]);
+    }
+    
+    private String text() {
+        StringBuilder text = new StringBuilder();
+        for (int t = 0; t < size(); t++) {
+            if (t > 0) text.append(' ');
+            text.append(format(t));
+        }
+        return text.toString();
+    }
+    
+    // Whether text() gives back exactly this text
+    private boolean rebuilds(String text) {
+        int pos = 0;
+        for (int t = 0; t < size(); t++) {
+            if (t > 0) {
+                if (pos == text.length() || text.charAt(pos) != ' ') return false;
+                pos++;
+            }
+            String value = format(t);
+            if (!text.startsWith(value, pos)) return false;
+            pos += value.length();
+        }
+        return pos == text.length();
+    }
+    
+    private void parse() {
+        intValues = null;
+        doubleValues = null;
+        stringValues = null;
+        String text = values != null ? values : "";
+        
+        // Token boundaries, split on any whitespace
+        int[] bounds = new int[16];
+        int count = 0;
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) i++;
+            if (i == text.length()) break;
+            int start = i;
+            while (i < text.length() && !Character.isWhitespace(text.charAt(i))) i++;
+            if (count * 2 + 2 > bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            bounds[count * 2] = start;
+            bounds[count * 2 + 1] = i;
+            count++;
+        }
+        
+        parse(text, bounds, count);
+        if (count > 0 && rebuilds(text)) {
+            values = null;
+        }
+    }
+    
+    private void parse(String text, int[] bounds, int count) {
+        try {
+            int[] ints = new int[count];
+            for (int t = 0; t < count; t++) {
+                ints[t] = Integer.parseInt(text, bounds[t * 2], bounds[t * 2 + 1], 10);
+            }
+            intValues = ints;
+            return;
+        } catch (NumberFormatException e) {
+            // not an int table
+        }
+        try {
+            double[] doubles = new double[count];
+            for (int t = 0; t < count; t++) {
+                doubles[t] = Double.parseDouble(text.substring(bounds[t * 2], bounds[t * 2 + 1]));
+            }
+            doubleValues = doubles;
+            return;
+        } catch (NumberFormatException e) {
+            // not numeric
+        }
+        String[] strings = new String[count];
+        for (int t = 0; t < count; t++) {
+            strings[t] = text.substring(bounds[t * 2], bounds[t * 2 + 1]);
+        }
+        stringValues = strings;
+    }
+    
+    void internValues(StringPool pool) {
+        if (stringValues == null) return;
+        for (int t = 0; t < stringValues.length; t++) {
+            stringValues[t] = pool.internValue(stringValues[t]);
+        }
     }
     
     @Override
     public String toString() {
-        return name + " = " + values;
+        return name + " = " + getValues();
     }
 }
 
@@ -196,6 +455,13 @@ class SkillConditions {
     public SkillTarget getTarget() { return target; }
     public SkillPlayer getPlayer() { return player; }
     
+    public void setMsgId(String msgId) { this.msgId = msgId; }
+    public void setAddName(String addName) { this.addName = addName; }
+    public void setUsing(SkillUsing using) { this.using = using; }
+    public void setAnd(SkillAnd and) { this.and = and; }
+    public void setTarget(SkillTarget target) { this.target = target; }
+    public void setPlayer(SkillPlayer player) { this.player = player; }
+    
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -221,6 +487,9 @@ class SkillAnd {
     public SkillUsing getUsing() { return using; }
     public SkillTarget getTarget() { return target; }
     public SkillPlayer getPlayer() { return player; }
+    public void setUsing(SkillUsing using) { this.using = using; }
+    public void setTarget(SkillTarget target) { this.target = target; }
+    public void setPlayer(SkillPlayer player) { this.player = player; }
 }
 
 // Classe para using
@@ -230,6 +499,7 @@ class SkillUsing {
     private String kind;
     
     public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
 }
 
 // Classe para target
@@ -247,6 +517,9 @@ class SkillTarget {
     public String getRace() { return race; }
     public String getMindistance() { return mindistance; }
     public String getAbnormal() { return abnormal; }
+    public void setRace(String race) { this.race = race; }
+    public void setMindistance(String mindistance) { this.mindistance = mindistance; }
+    public void setAbnormal(String abnormal) { this.abnormal = abnormal; }
 }
 
 // Classe para player
@@ -268,6 +541,10 @@ class SkillPlayer {
     public String getCharges() { return charges; }
     public String getInvSize() { return invSize; }
     public String getWeight() { return weight; }
+    public void setHp(String hp) { this.hp = hp; }
+    public void setCharges(String charges) { this.charges = charges; }
+    public void setInvSize(String invSize) { this.invSize = invSize; }
+    public void setWeight(String weight) { this.weight = weight; }
 }
 
 // Classe para effects
@@ -277,6 +554,7 @@ class SkillEffects {
     private List<SkillEffect> effects = new ArrayList<>();
     
     public List<SkillEffect> getEffects() { return effects; }
+    public void setEffects(List<SkillEffect> effects) { this.effects = effects; }
     
     @Override
     public String toString() {
@@ -314,6 +592,12 @@ class SkillEffect {
     public List<SkillStat> getAdds() { return adds; }
     public List<SkillStat> getSubs() { return subs; }
     public List<SkillStat> getSets() { return sets; }
+    public void setName(String name) { this.name = name; }
+    public void setParams(List<SkillParam> params) { this.params = params; }
+    public void setMuls(List<SkillStat> muls) { this.muls = muls; }
+    public void setAdds(List<SkillStat> adds) { this.adds = adds; }
+    public void setSubs(List<SkillStat> subs) { this.subs = subs; }
+    public void setSets(List<SkillStat> sets) { this.sets = sets; }
     
     @Override
     public String toString() {
@@ -343,6 +627,11 @@ class SkillParam {
     public String getPower() { return power; }
     public String getTime() { return time; }
     public String getChance() { return chance; }
+    public void setStat(String stat) { this.stat = stat; }
+    public void setVal(String val) { this.val = val; }
+    public void setPower(String power) { this.power = power; }
+    public void setTime(String time) { this.time = time; }
+    public void setChance(String chance) { this.chance = chance; }
 }
 
 @XmlAccessorType(XmlAccessType.FIELD)
@@ -355,4 +644,6 @@ class SkillStat {
     
     public String getStat() { return stat; }
     public String getVal() { return val; }
+    public void setStat(String stat) { this.stat = stat; }
+    public void setVal(String val) { this.val = val; }
 }
\ No newline at end of file
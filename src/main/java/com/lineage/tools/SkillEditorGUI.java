@@ -28,6 +28,7 @@ import com.formdev.flatlaf.themes.FlatMacLightLaf;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.text.JTextComponent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.DocumentEvent;
 import java.awt.*;
@@ -35,10 +36,16 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
 import java.net.URL;
+import java.text.ParseException;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import java.util.prefs.Preferences;
 
 @SuppressWarnings("unused")
@@ -46,15 +53,48 @@ public class SkillEditorGUI extends JFrame {
     
     private static final long serialVersionUID = 1L;
     private static final String PREF_LAST_DIR = "lastDirectory";
+    private static final String PREF_LAZY_LOADING = "lazyLoading";
+    private static final String PREF_AUTOSAVE = "autosave";
+    private static final String PREF_AUTOSAVE_DELAY = "autosaveDelay";
     private Preferences prefs;    
  
-    private SkillManager skillManager;
+    private final SkillManager skillManager;
+    private final ChangeBus.Listener skillsListener = this::skillsChanged;
+    // Items and skill trees edited in their windows change the References tab
+    private final ChangeBus.Listener referencesListener = this::referencesChanged;
     private JTable skillTable;
-    private DefaultTableModel tableModel;
+    private ListTableModel<Skill> tableModel;
+    private ListRowSorter<Skill> sorter;
     private JTextField searchField;
     private Skill currentSkill;
+    // Set while a row is selected again without reloading the editor from it
+    private boolean keepEditor;
     private boolean darkMode = true;
     
+    // External change detection
+    private DatapackWatcher watcher;
+    private boolean watchFiles = false;
+    
+    // Background loading
+    private LoadWorker<Skill> loadWorker;
+    private LoadProgressPanel loadProgress;
+    
+    // Whole datapack (skills, items, skill trees), shared with the other editors,
+    // and the one item and skill tree window opened on it
+    private final Workspace workspace = Workspace.shared();
+    private boolean datapackLoading;
+    private ItemEditorGUI itemEditor;
+    private SkillTreeEditorGUI treeEditor;
+    
+    // Optional background save of the loaded files (null when off)
+    private AutoSaver<SkillManager.SaveSnapshot> autoSaver;
+    
+    // Live search as the user types, off the EDT; a search starting with
+    // QUERY_PREFIX is a SkillQuery instead of plain text
+    private static final String QUERY_PREFIX = "?";
+    private final SearchScheduler<List<Skill>> searchScheduler =
+        new SearchScheduler<>("skill-search", SearchScheduler.DEFAULT_DELAY_MILLIS, this::refreshSkillTable);
+    
     // Internationalization
     private ResourceBundle messages;
     private Locale currentLocale = Locale.ENGLISH;
@@ -94,6 +134,20 @@ public class SkillEditorGUI extends JFrame {
     private JTextArea effectsArea;
     private JTextArea conditionsArea;
     
+    // Detail tabs, in the order they are added
+    private static final int TAB_BASIC = 0;
+    private static final int TAB_SETS = 1;
+    private static final int TAB_TABLES = 2;
+    private static final int TAB_EFFECTS = 3;
+    private static final int TAB_CONDITIONS = 4;
+    private static final int TAB_REFERENCES = 5;
+    private static final Skill NOT_FILLED = new Skill();
+    // The skill each detail tab was last filled from. Only the visible tab is
+    // filled when the selection moves; the others catch up when they are shown.
+    private final Skill[] tabSkill = {NOT_FILLED, NOT_FILLED, NOT_FILLED, NOT_FILLED, NOT_FILLED, NOT_FILLED};
+    private DefaultTableModel referencesTableModel;
+    private JLabel referencesInfo;
+    
     public SkillEditorGUI() {
  
         // Inicializar preferências
@@ -105,15 +159,25 @@ public class SkillEditorGUI extends JFrame {
         // Apply dark theme by default
         applyTheme(true);
         
-        skillManager = new SkillManager();
+        skillManager = workspace.getSkills();
+        skillManager.setLazyLoading(prefs.getBoolean(PREF_LAZY_LOADING, false));
+        skillManager.setEditListener(this::onSkillEdited);
+        skillManager.getChanges().addListener(skillsListener);
+        workspace.getItems().getChanges().addListener(referencesListener);
+        workspace.getSkillTrees().getChanges().addListener(referencesListener);
+        setAutoSave(prefs.getBoolean(PREF_AUTOSAVE, false));
         initComponents();
         setIcon();
     }
     
+    // Brings back the item window if it is open: there is only one set of items
     private void openItemEditor() {
         SwingUtilities.invokeLater(() -> {
-            ItemEditorGUI editor = new ItemEditorGUI(currentLocale);
-            editor.setVisible(true);
+            if (itemEditor == null || !itemEditor.isDisplayable()) {
+                itemEditor = new ItemEditorGUI(currentLocale, workspace.getItems());
+            }
+            itemEditor.setVisible(true);
+            itemEditor.toFront();
         });
     }
     
@@ -152,6 +216,7 @@ public class SkillEditorGUI extends JFrame {
         // Update search label
         if (searchLabel != null) {
             searchLabel.setText("🔍 " + getMsg("panel.search") + ": ");
+            searchField.setToolTipText(getMsg("panel.search.tooltip"));
         }
         
         // Update abas
@@ -161,6 +226,7 @@ public class SkillEditorGUI extends JFrame {
             tabbedPane.setTitleAt(2, getMsg("tab.tables"));
             tabbedPane.setTitleAt(3, getMsg("tab.effects"));
             tabbedPane.setTitleAt(4, getMsg("tab.conditions"));
+            tabbedPane.setTitleAt(5, getMsg("tab.references"));
         }
         
         // Update save button
@@ -260,12 +326,39 @@ public class SkillEditorGUI extends JFrame {
         
         JMenuItem openItem = createMenuItem(getMsg("menu.file.open"), "icons/open.png", 
             KeyStroke.getKeyStroke("ctrl O"), e -> loadXml());
+        JMenuItem openFolderItem = createMenuItem(getMsg("menu.file.openFolder"), "icons/open.png", 
+            KeyStroke.getKeyStroke("ctrl shift O"), e -> loadFolder());
+        JMenuItem openDatapackItem = createMenuItem(getMsg("menu.file.openDatapack"), "icons/open.png", 
+            KeyStroke.getKeyStroke("ctrl alt O"), e -> openDatapack());
         JMenuItem saveItem = createMenuItem(getMsg("menu.file.save"), "icons/save.png", 
             KeyStroke.getKeyStroke("ctrl S"), e -> saveXml());
         fileMenu.add(openItem);
+        fileMenu.add(openFolderItem);
+        fileMenu.add(openDatapackItem);
         fileMenu.add(saveItem);
         fileMenu.addSeparator();
         
+        JCheckBoxMenuItem watchItem = new JCheckBoxMenuItem(getMsg("menu.file.watch"), watchFiles);
+        watchItem.addActionListener(e -> setWatchFiles(watchItem.isSelected()));
+        fileMenu.add(watchItem);
+        
+        // Applies to the next load
+        JCheckBoxMenuItem lazyItem = new JCheckBoxMenuItem(getMsg("menu.file.lazy"), skillManager.isLazyLoading());
+        lazyItem.addActionListener(e -> {
+            skillManager.setLazyLoading(lazyItem.isSelected());
+            prefs.putBoolean(PREF_LAZY_LOADING, lazyItem.isSelected());
+        });
+        fileMenu.add(lazyItem);
+        
+        JCheckBoxMenuItem autoSaveItem = new JCheckBoxMenuItem(getMsg("menu.file.autosave"), autoSaver != null);
+        autoSaveItem.addActionListener(e -> {
+            setAutoSave(autoSaveItem.isSelected());
+            prefs.putBoolean(PREF_AUTOSAVE, autoSaveItem.isSelected());
+        });
+        fileMenu.add(autoSaveItem);
+        fileMenu.add(new JMenuItem(getMsg("menu.file.autosaveDelay"))).addActionListener(e -> editAutoSaveDelay());
+        fileMenu.addSeparator();
+        
         JMenuItem exitItem = createMenuItem(getMsg("menu.file.exit"), null, null, e -> System.exit(0));
         fileMenu.add(exitItem);
         
@@ -283,8 +376,11 @@ public class SkillEditorGUI extends JFrame {
             null, e -> validateSkills());
         JMenuItem exportItem = createMenuItem(getMsg("menu.tools.export"), "icons/export.png", 
             null, e -> exportToCsv());
+        JMenuItem unreferencedItem = createMenuItem(getMsg("menu.tools.unreferenced"), null,
+            null, e -> showUnreferencedSkills());
         toolsMenu.add(validateItem);
         toolsMenu.add(exportItem);
+        toolsMenu.add(unreferencedItem);
         toolsMenu.addSeparator();
         
         // Theme Submenu
@@ -392,24 +488,25 @@ public class SkillEditorGUI extends JFrame {
         searchLabel = new JLabel("🔍 " + getMsg("panel.search") + ": ");
         searchPanel.add(searchLabel, BorderLayout.WEST);
         searchField = new JTextField();
+        searchField.setToolTipText(getMsg("panel.search.tooltip"));
         searchField.getDocument().addDocumentListener(new DocumentListener() {
-            public void changedUpdate(DocumentEvent e) { filterSkills(); }
-            public void removeUpdate(DocumentEvent e) { filterSkills(); }
-            public void insertUpdate(DocumentEvent e) { filterSkills(); }
+            public void changedUpdate(DocumentEvent e) { scheduleFilter(); }
+            public void removeUpdate(DocumentEvent e) { scheduleFilter(); }
+            public void insertUpdate(DocumentEvent e) { scheduleFilter(); }
         });
         searchPanel.add(searchField, BorderLayout.CENTER);
         panel.add(searchPanel, BorderLayout.NORTH);
         
         // Tabela de skills
         String[] columns = {"ID", "Name", "Levels", "Enchant"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new ListTableModel<>(columns, Skill::getSkillId, Skill::getName, Skill::getLevels,
+            SkillEditorGUI::enchantInfo);
         
+        sorter = new ListRowSorter<>(tableModel);
+        sorter.setIntColumn(0, Skill::getSkillId);
+        sorter.setIntColumn(2, Skill::getLevels);
         skillTable = new JTable(tableModel);
+        skillTable.setRowSorter(sorter);
         skillTable.setRowHeight(25);
         skillTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -424,9 +521,7 @@ public class SkillEditorGUI extends JFrame {
                 Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
                 
                 if (!isSelected) {
-                    int modelRow = table.convertRowIndexToModel(row);
-                    int skillId = (int) tableModel.getValueAt(modelRow, 0);
-                    Skill skill = skillManager.findSkillById(skillId);
+                    Skill skill = tableModel.getRow(table.convertRowIndexToModel(row));
                     
                     if (skill != null && (skill.getEnchantGroup1() != null || 
                                            skill.getEnchantGroup2() != null ||
@@ -460,6 +555,8 @@ public class SkillEditorGUI extends JFrame {
         tabbedPane.addTab(getMsg("tab.tables"), createTablesPanel());
         tabbedPane.addTab(getMsg("tab.effects"), createEffectsPanel());
         tabbedPane.addTab(getMsg("tab.conditions"), createConditionsPanel());
+        tabbedPane.addTab(getMsg("tab.references"), createReferencesPanel());
+        tabbedPane.addChangeListener(e -> fillTab(tabbedPane.getSelectedIndex()));
         
         panel.add(tabbedPane, BorderLayout.CENTER);
         
@@ -628,6 +725,69 @@ public class SkillEditorGUI extends JFrame {
         return panel;
     }
     
+    // Items and skill trees that use the selected skill (datapacks only)
+    private JPanel createReferencesPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        
+        String[] columns = {"Type", "ID", "Name", "Level"};
+        referencesTableModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        
+        JTable referencesTable = new JTable(referencesTableModel);
+        referencesTable.setRowHeight(25);
+        panel.add(new JScrollPane(referencesTable), BorderLayout.CENTER);
+        
+        referencesInfo = new JLabel(getMsg("label.references"));
+        referencesInfo.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        panel.add(referencesInfo, BorderLayout.NORTH);
+        
+        return panel;
+    }
+    
+    private void referencesChanged(ModelChange change) {
+        tabSkill[TAB_REFERENCES] = NOT_FILLED;
+        fillTab(tabbedPane.getSelectedIndex());
+    }
+    
+    private void refreshReferences() {
+        referencesTableModel.setRowCount(0);
+        if (!workspace.hasDatapack()) {
+            referencesInfo.setText(getMsg("label.referencesNoDatapack"));
+            return;
+        }
+        referencesInfo.setText(getMsg("label.references"));
+        if (currentSkill == null) return;
+        
+        SkillReferenceIndex references = workspace.getReferences();
+        int skillId = currentSkill.getSkillId();
+        for (SkillReferenceIndex.ItemReference ref : references.getItems(skillId)) {
+            referencesTableModel.addRow(new Object[]{
+                "Item", ref.item().getItemId(), ref.item().getName(), ref.level()
+            });
+        }
+        for (SkillReferenceIndex.TreeReference ref : references.getTrees(skillId)) {
+            referencesTableModel.addRow(new Object[]{
+                "Skill tree", ref.tree().getClassId(), ref.tree().getType(),
+                ref.entry().getSkillLevel() + " @ " + ref.entry().getGetLevel()
+            });
+        }
+    }
+    
+    private void showUnreferencedSkills() {
+        if (!workspace.hasDatapack()) {
+            JOptionPane.showMessageDialog(this, getMsg("label.referencesNoDatapack"));
+            return;
+        }
+        searchScheduler.cancel();
+        List<Skill> unreferenced = workspace.getReferences().unreferenced(skillManager.getSkills());
+        refreshSkillTable(unreferenced);
+        updateStatus(getMsg("status.unreferenced") + " " + unreferenced.size());
+    }
+    
     private JPanel createStatusBar() {
         JPanel statusBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
         statusBar.setBorder(BorderFactory.createEtchedBorder());
@@ -636,6 +796,9 @@ public class SkillEditorGUI extends JFrame {
         statusLabel.setFont(statusLabel.getFont().deriveFont(11f));
         statusBar.add(statusLabel);
         
+        loadProgress = new LoadProgressPanel(getMsg("button.cancel"));
+        statusBar.add(loadProgress);
+        
         return statusBar;
     }
     
@@ -647,14 +810,19 @@ public class SkillEditorGUI extends JFrame {
     
     private void openSkillTreeEditor() {
         SwingUtilities.invokeLater(() -> {
-            SkillTreeEditorGUI editor = new SkillTreeEditorGUI(currentLocale);
-            editor.setVisible(true);
+            if (treeEditor == null || !treeEditor.isDisplayable()) {
+                treeEditor = new SkillTreeEditorGUI(currentLocale, workspace.getSkillTrees());
+            }
+            treeEditor.setVisible(true);
+            treeEditor.toFront();
         });
     }
     
 		// ========== FUNCTIONALITY METHODS ==========
     
     private void loadXml() {
+        if (isLoading()) return;
+        
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("XML files", "xml"));
         
@@ -664,16 +832,34 @@ public class SkillEditorGUI extends JFrame {
             fileChooser.setCurrentDirectory(new File(lastDir));
         }
         
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile();
+            // Salvar o diretório atual para a próxima vez
+            prefs.put(PREF_LAST_DIR, file.getParent());
+            startLoad(file.getName(), file.length(), (sink, monitor) -> skillManager.readFile(file, sink, monitor));
+        }
+    }
+    
+    private void loadFolder() {
+        if (isLoading()) return;
+        
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        
+        String lastDir = prefs.get(PREF_LAST_DIR, null);
+        if (lastDir != null) {
+            fileChooser.setCurrentDirectory(new File(lastDir));
+        }
+        
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
             try {
-                File file = fileChooser.getSelectedFile();
-                // Salvar o diretório atual para a próxima vez
-                prefs.put(PREF_LAST_DIR, file.getParent());
-                 skillManager.loadFromFile(file);
-                refreshSkillTable(skillManager.getSkills());
-                JOptionPane.showMessageDialog(this, 
-                    getMsg("success.loaded") + " " + skillManager.getSkills().size() + " skills");
-                updateStatus(getMsg("status.loaded") + " " + skillManager.getSkills().size() + " skills");
+                File dir = fileChooser.getSelectedFile();
+                prefs.put(PREF_LAST_DIR, dir.getAbsolutePath());
+                long totalBytes = 0;
+                for (File file : DatapackLoader.listXmlFiles(dir)) {
+                    totalBytes += file.length();
+                }
+                startLoad(dir.getName(), totalBytes, (sink, monitor) -> skillManager.readDirectory(dir, sink, monitor));
                 
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this, 
@@ -684,12 +870,186 @@ public class SkillEditorGUI extends JFrame {
         }
     }
     
+    // Parses off the EDT. Rows are appended as batches arrive and can be selected
+    // right away; if the load fails or is cancelled the previous skills come back.
+    private void startLoad(String name, long totalBytes, LoadWorker.Loader<Skill> loader) {
+        // The table is filled while the file is read: never autosave that
+        if (autoSaver != null) autoSaver.pause();
+        skillManager.suspendJournal();
+        List<Skill> previous = skillManager.getSkills();
+        skillManager.setSkills(new ArrayList<>());
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        
+        loadWorker = new LoadWorker<>(totalBytes, loader, new LoadWorker.Listener<Skill>() {
+            @Override
+            public void loaded(List<Skill> batch) {
+                for (Skill skill : batch) {
+                    skillManager.addSkill(skill);
+                }
+            }
+            
+            @Override
+            public void finished(LoadResult<Skill> result) {
+                loadWorker = null;
+                skillManager.applyLoad(result);
+                if (autoSaver != null) autoSaver.resume();
+                restartWatcher();
+                String loaded = skillManager.getSkills().size() + " skills";
+                if (result.getSourceDirectory() != null) {
+                    loaded += " (" + result.getFileCount() + " " + getMsg("status.files") + ")";
+                }
+                JOptionPane.showMessageDialog(SkillEditorGUI.this, getMsg("success.loaded") + " " + loaded);
+                updateStatus(getMsg("status.loaded") + " " + loaded);
+                showRecoveredEdits();
+            }
+            
+            @Override
+            public void failed(Exception ex) {
+                restore();
+                JOptionPane.showMessageDialog(SkillEditorGUI.this, 
+                    getMsg("error.loadXML") + " " + ex.getMessage(), 
+                    "Error", JOptionPane.ERROR_MESSAGE);
+                ex.printStackTrace();
+            }
+            
+            @Override
+            public void cancelled() {
+                restore();
+                updateStatus(getMsg("status.loadCancelled"));
+            }
+            
+            private void restore() {
+                loadWorker = null;
+                skillManager.setSkills(previous);
+                skillManager.resumeJournal();
+                if (autoSaver != null) autoSaver.resume();
+                restartWatcher();
+            }
+        });
+        loadProgress.track(loadWorker);
+        updateStatus(getMsg("status.loading") + " " + name);
+        loadWorker.execute();
+    }
+    
+    private boolean isLoading() {
+        return loadWorker != null || datapackLoading;
+    }
+    
+    private void openDatapack() {
+        if (isLoading()) return;
+        
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        String lastDir = prefs.get(PREF_LAST_DIR, null);
+        if (lastDir != null) {
+            fileChooser.setCurrentDirectory(new File(lastDir));
+        }
+        
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File root = fileChooser.getSelectedFile();
+            prefs.put(PREF_LAST_DIR, root.getAbsolutePath());
+            loadDatapack(root);
+        }
+    }
+    
+    // Loads skills, items and skill trees together (see Workspace). Item and skill
+    // tree windows show the new data as soon as it is applied.
+    void loadDatapack(File root) {
+        if (isLoading()) return;
+        datapackLoading = true;
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        updateStatus(getMsg("status.loading") + " " + root.getName());
+        
+        new SwingWorker<Workspace.Datapack, Void>() {
+            @Override
+            protected Workspace.Datapack doInBackground() throws Exception {
+                return workspace.read(root);
+            }
+            
+            @Override
+            protected void done() {
+                datapackLoading = false;
+                try {
+                    Workspace.Datapack datapack = get();
+                    // Neither window may save while the managers are being replaced
+                    if (autoSaver != null) autoSaver.pause();
+                    ItemEditorGUI items = itemEditor != null && itemEditor.isDisplayable() ? itemEditor : null;
+                    if (items != null) items.pauseAutoSave();
+                    try {
+                        workspace.apply(datapack);
+                    } finally {
+                        if (autoSaver != null) autoSaver.resume();
+                        if (items != null) items.resumeAutoSave();
+                    }
+                    currentSkill = null;
+                    clearEditor();
+                    restartWatcher();
+                    String loaded = skillManager.getSkills().size() + " skills, "
+                        + workspace.getItems().getItems().size() + " items, "
+                        + workspace.getSkillTrees().getClassTrees().size() + " skill trees ("
+                        + datapack.loadMillis() + " ms)";
+                    updateStatus(getMsg("status.loaded") + " " + loaded);
+                    showRecoveredEdits();
+                } catch (Exception ex) {
+                    Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+                    restartWatcher();
+                    updateStatus(getMsg("status.ready"));
+                    JOptionPane.showMessageDialog(SkillEditorGUI.this, 
+                        getMsg("error.loadXML") + " " + cause.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+    
+    // Edits replayed from the journal of a session that did not save
+    private void showRecoveredEdits() {
+        int recovered = skillManager.getRecoveredEdits();
+        if (recovered > 0) {
+            onSkillEdited();
+            updateStatus(getMsg("status.recovered") + " " + recovered);
+            JOptionPane.showMessageDialog(this, getMsg("status.recovered") + " " + recovered);
+        }
+    }
+    
     private void saveXml() {
+        // Never write out a half-loaded datapack
+        if (isLoading()) return;
+        
         if (skillManager.getSkills().isEmpty()) {
             JOptionPane.showMessageDialog(this, getMsg("error.noSkill"));
             return;
         }
         
+        // Folder mode: offer to write every skill back to the file it came from
+        if (skillManager.getSourceDirectory() != null) {
+            int choice = JOptionPane.showConfirmDialog(this, getMsg("dialog.saveToSources"),
+                getMsg("menu.file.save"), JOptionPane.YES_NO_CANCEL_OPTION);
+            if (choice == JOptionPane.CANCEL_OPTION || choice == JOptionPane.CLOSED_OPTION) {
+                return;
+            }
+            if (choice == JOptionPane.YES_OPTION) {
+                try {
+                    int files = skillManager.saveToSourceFiles();
+                    JOptionPane.showMessageDialog(this, getMsg("success.saved"));
+                    updateStatus(getMsg("status.saved") + " " + files + " " + getMsg("status.files"));
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(this, 
+                        getMsg("error.saveXML") + " " + ex.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    ex.printStackTrace();
+                }
+                return;
+            }
+        }
+        
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("XML files", "xml"));
         // Recuperar o último diretório usado
@@ -718,74 +1078,285 @@ public class SkillEditorGUI extends JFrame {
         }
     }
     
-    private void refreshSkillTable(List<Skill> skills) {
-        tableModel.setRowCount(0);
-        for (Skill skill : skills) {
-            String enchantInfo = "";
-            if (skill.getEnchantGroup1() != null) enchantInfo += "1";
-            if (skill.getEnchantGroup2() != null) enchantInfo += (enchantInfo.isEmpty() ? "2" : ",2");
-            if (skill.getEnchantGroup3() != null) enchantInfo += (enchantInfo.isEmpty() ? "3" : ",3");
-            if (skill.getEnchantGroup4() != null) enchantInfo += (enchantInfo.isEmpty() ? "4" : ",4");
+    // ========== AUTOSAVE ==========
+    
+    private void onSkillEdited() {
+        if (autoSaver != null) autoSaver.edited();
+    }
+    
+    private void setAutoSave(boolean enabled) {
+        if (autoSaver != null) {
+            autoSaver.close();
+            autoSaver = null;
+        }
+        if (!enabled) return;
+        long delay = prefs.getLong(PREF_AUTOSAVE_DELAY, AutoSaver.DEFAULT_QUIET_MILLIS);
+        // Only what was loaded from files is saved back; nothing to ask the user
+        autoSaver = new AutoSaver<>("skill-autosave", delay, () -> skillManager.getEditVersion(),
+                new AutoSaver.Saver<>() {
+            private SkillManager manager;
             
-            tableModel.addRow(new Object[]{
-                skill.getSkillId(),
-                skill.getName(),
-                skill.getLevels(),
-                enchantInfo
-            });
+            @Override
+            public SkillManager.SaveSnapshot snapshot() throws Exception {
+                manager = skillManager;
+                return manager.snapshot();
+            }
+            
+            @Override
+            public void save(SkillManager.SaveSnapshot snapshot) throws Exception {
+                manager.save(snapshot);
+            }
+        }, () -> SwingUtilities.invokeLater(() ->
+            updateStatus(getMsg("status.autosaved") + " " + LocalTime.now().withNano(0))
+        ), ex -> SwingUtilities.invokeLater(() -> {
+            updateStatus(getMsg("error.autosave") + " " + ex.getMessage());
+            ex.printStackTrace();
+        }));
+    }
+    
+    private void editAutoSaveDelay() {
+        long current = prefs.getLong(PREF_AUTOSAVE_DELAY, AutoSaver.DEFAULT_QUIET_MILLIS);
+        String input = JOptionPane.showInputDialog(this, getMsg("dialog.autosaveDelay"), current / 1000.0);
+        if (input == null) return;
+        try {
+            long delay = Math.round(Double.parseDouble(input.trim().replace(',', '.')) * 1000);
+            if (delay < 100) throw new NumberFormatException();
+            prefs.putLong(PREF_AUTOSAVE_DELAY, delay);
+            if (autoSaver != null) autoSaver.setQuietMillis(delay);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, getMsg("error.invalidDelay"));
+        }
+    }
+    
+    private void setWatchFiles(boolean enabled) {
+        watchFiles = enabled;
+        restartWatcher();
+    }
+    
+    private void restartWatcher() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        if (!watchFiles || skillManager.getSourceFiles().isEmpty()) return;
+        
+        try {
+            watcher = new DatapackWatcher(skillManager.getSourceFiles(), this::onFileChanged);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, 
+                getMsg("error.loadXML") + " " + ex.getMessage(), 
+                "Error", JOptionPane.ERROR_MESSAGE);
+            ex.printStackTrace();
+        }
+    }
+    
+    // Watcher thread: parse only the changed file, then apply it on the EDT
+    private void onFileChanged(File file) {
+        try {
+            List<Skill> reloaded = skillManager.parseChangedFile(file);
+            if (reloaded != null) {
+                SwingUtilities.invokeLater(() -> applyReload(file, reloaded));
+            }
+        } catch (Exception ex) {
+            SwingUtilities.invokeLater(() -> updateStatus(getMsg("error.loadXML") + " " + file.getName()));
+            ex.printStackTrace();
+        }
+    }
+    
+    private void applyReload(File file, List<Skill> reloaded) {
+        // Queued by the previous watcher; the running load reads the file anyway
+        if (isLoading()) return;
+        
+        ModelChange change = skillManager.replaceFileSkills(file, reloaded);
+        if (change.isEmpty()) return;
+        
+        filterSkills();
+        if (currentSkill != null) {
+            int currentId = currentSkill.getSkillId();
+            if (change.getRemoved().contains(currentId)) {
+                currentSkill = null;
+                clearEditor();
+            } else {
+                // An unchanged skill keeps whatever is being typed in the editor
+                selectSkill(skillManager.findSkillById(currentId), change.getUpdated().contains(currentId));
+            }
+        }
+        updateStatus(getMsg("status.reloaded") + " " + file.getName() + " (" + change + ")");
+    }
+    
+    // Edits from this window or any other one showing the same manager, once per
+    // event-queue turn. Updated and added skills touch only their rows.
+    private void skillsChanged(ModelChange change) {
+        List<Skill> all = skillManager.getSkills();
+        if (change.isReset() || !change.getRemoved().isEmpty() || tableModel.getRows() != all) {
+            // Rows moved: the search runs again on the new positions
+            filterSkills();
+            if (currentSkill != null && skillManager.findSkillById(currentSkill.getSkillId()) != currentSkill) {
+                currentSkill = null;
+                clearEditor();
+            }
+            return;
+        }
+        // New skills are appended, and shown even under a search (except while loading)
+        if (!isLoading()) sorter.includeRows(tableModel.getRowCount(), all.size());
+        tableModel.rowsAppended();
+        List<Skill> updated = new ArrayList<>(change.getUpdated().size());
+        for (int skillId : change.getUpdated()) {
+            Skill skill = skillManager.findSkillById(skillId);
+            if (skill != null) updated.add(skill);
+        }
+        tableModel.rowsUpdated(updated);
+    }
+    
+    // The table always holds the manager's list: a search only hides rows
+    private void refreshSkillTable(List<Skill> skills) {
+        List<Skill> all = skillManager.getSkills();
+        if (tableModel.getRows() != all) tableModel.setRows(all);
+        sorter.setVisibleRows(skills == all ? null : tableModel.rowsOf(skills));
+    }
+    
+    private void selectSkill(Skill skill, boolean load) {
+        int row = tableModel.indexOf(skill);
+        int viewRow = row < 0 ? -1 : skillTable.convertRowIndexToView(row);
+        if (viewRow < 0) return;
+        keepEditor = !load;
+        try {
+            skillTable.setRowSelectionInterval(viewRow, viewRow);
+        } finally {
+            keepEditor = false;
+        }
+    }
+    
+    private static String enchantInfo(Skill skill) {
+        String enchantInfo = "";
+        if (skill.getEnchantGroup1() != null) enchantInfo += "1";
+        if (skill.getEnchantGroup2() != null) enchantInfo += (enchantInfo.isEmpty() ? "2" : ",2");
+        if (skill.getEnchantGroup3() != null) enchantInfo += (enchantInfo.isEmpty() ? "3" : ",3");
+        if (skill.getEnchantGroup4() != null) enchantInfo += (enchantInfo.isEmpty() ? "4" : ",4");
+        return enchantInfo;
+    }
+    
+    // Typing: the query runs once the user pauses, and only its latest result is shown
+    private void scheduleFilter() {
+        String search = searchField.getText();
+        if (search.isEmpty()) {
+            filterSkills();
+        } else if (search.startsWith(QUERY_PREFIX)) {
+            SkillQuery query = parseQuery(search);
+            if (query == null) {
+                searchScheduler.cancel();
+            } else {
+                SkillManager manager = skillManager;
+                searchScheduler.submit(search, text -> manager.querySkills(query));
+            }
+        } else {
+            searchScheduler.submit(search, skillManager::searchSkills);
         }
     }
     
     private void filterSkills() {
+        searchScheduler.cancel();
         String search = searchField.getText();
         if (search.isEmpty()) {
             refreshSkillTable(skillManager.getSkills());
+        } else if (search.startsWith(QUERY_PREFIX)) {
+            SkillQuery query = parseQuery(search);
+            if (query != null) refreshSkillTable(skillManager.querySkills(query));
         } else {
             refreshSkillTable(skillManager.searchSkills(search));
         }
     }
     
+    // "?operateType=A1 and #power[1] > 100", see SkillQuery
+    private SkillQuery parseQuery(String search) {
+        try {
+            return SkillQuery.parse(search.substring(QUERY_PREFIX.length()));
+        } catch (ParseException e) {
+            updateStatus(getMsg("error.query") + " " + e.getMessage());
+            return null;
+        }
+    }
+    
     private void loadSelectedSkill() {
         int selectedRow = skillTable.getSelectedRow();
-        if (selectedRow < 0) return;
-        
-        int skillId = (int) tableModel.getValueAt(selectedRow, 0);
-        currentSkill = skillManager.findSkillById(skillId);
-        
-        if (currentSkill == null) return;
+        if (selectedRow < 0 || keepEditor) return;
         
-        txtSkillId.setText(String.valueOf(currentSkill.getSkillId()));
-        txtName.setText(currentSkill.getName());
-        txtLevels.setText(String.valueOf(currentSkill.getLevels()));
-        
-        txtEnchantGroup1.setText(currentSkill.getEnchantGroup1() != null ? currentSkill.getEnchantGroup1() : "");
-        txtEnchantGroup2.setText(currentSkill.getEnchantGroup2() != null ? currentSkill.getEnchantGroup2() : "");
-        txtEnchantGroup3.setText(currentSkill.getEnchantGroup3() != null ? currentSkill.getEnchantGroup3() : "");
-        txtEnchantGroup4.setText(currentSkill.getEnchantGroup4() != null ? currentSkill.getEnchantGroup4() : "");
-        
-        setsTableModel.setRowCount(0);
-        if (currentSkill.getSets() != null) {
-            for (SkillSet set : currentSkill.getSets()) {
-                setsTableModel.addRow(new Object[]{set.getName(), set.getVal()});
+        Skill selected = tableModel.getRow(skillTable.convertRowIndexToModel(selectedRow));
+        if (selected == null) return;
+        currentSkill = selected;
+        fillTab(tabbedPane.getSelectedIndex());
+    }
+    
+    // Fills a detail tab from the current skill unless it already shows it (so
+    // edits typed into a tab survive switching to another one and back)
+    private void fillTab(int tab) {
+        if (tab < 0 || currentSkill == null || tabSkill[tab] == currentSkill) return;
+        tabSkill[tab] = currentSkill;
+        switch (tab) {
+            case TAB_BASIC -> {
+                setText(txtSkillId, String.valueOf(currentSkill.getSkillId()));
+                setText(txtName, currentSkill.getName());
+                setText(txtLevels, String.valueOf(currentSkill.getLevels()));
+                setText(txtEnchantGroup1, currentSkill.getEnchantGroup1());
+                setText(txtEnchantGroup2, currentSkill.getEnchantGroup2());
+                setText(txtEnchantGroup3, currentSkill.getEnchantGroup3());
+                setText(txtEnchantGroup4, currentSkill.getEnchantGroup4());
             }
+            case TAB_SETS -> setRows(setsTable, setsTableModel, currentSkill.getSets(), SkillSet::getName, SkillSet::getVal);
+            case TAB_TABLES -> setRows(tablesTable, tablesTableModel, currentSkill.getTables(),
+                SkillTable::getName, SkillTable::getValues);
+            case TAB_EFFECTS -> setText(effectsArea,
+                currentSkill.getEffects() != null ? currentSkill.getEffects().toString() : "");
+            case TAB_CONDITIONS -> setText(conditionsArea,
+                currentSkill.getConditions() != null ? currentSkill.getConditions().toString() : "");
+            case TAB_REFERENCES -> refreshReferences();
+            default -> { }
         }
-        
-        tablesTableModel.setRowCount(0);
-        if (currentSkill.getTables() != null) {
-            for (SkillTable table : currentSkill.getTables()) {
-                tablesTableModel.addRow(new Object[]{table.getName(), table.getValues()});
+    }
+    
+    // Neighbouring skills tend to share most values: only what differs is touched
+    private static void setText(JTextComponent field, String text) {
+        if (text == null) text = "";
+        if (!text.equals(field.getText())) field.setText(text);
+    }
+    
+    @SafeVarargs
+    private static <T> void setRows(JTable table, DefaultTableModel model, List<T> entries, Function<T, Object>... columns) {
+        // A cell being edited belongs to the previous skill
+        if (table.isEditing()) table.getCellEditor().cancelCellEditing();
+        int count = entries != null ? entries.size() : 0;
+        int common = Math.min(count, model.getRowCount());
+        for (int row = 0; row < common; row++) {
+            T entry = entries.get(row);
+            for (int col = 0; col < columns.length; col++) {
+                Object value = columns[col].apply(entry);
+                if (!Objects.equals(value, model.getValueAt(row, col))) {
+                    model.setValueAt(value, row, col);
+                }
             }
         }
-        
-        effectsArea.setText(currentSkill.getEffects() != null ? currentSkill.getEffects().toString() : "");
-        conditionsArea.setText(currentSkill.getConditions() != null ? currentSkill.getConditions().toString() : "");
+        for (int row = common; row < count; row++) {
+            T entry = entries.get(row);
+            Object[] values = new Object[columns.length];
+            for (int col = 0; col < columns.length; col++) {
+                values[col] = columns[col].apply(entry);
+            }
+            model.addRow(values);
+        }
+        if (model.getRowCount() > count) model.setRowCount(count);
     }
     
     private void saveSkillChanges() {
+        // Rows are read-only until the load is applied (applyLoad replaces them)
+        if (isLoading()) return;
         if (currentSkill == null) {
             JOptionPane.showMessageDialog(this, getMsg("error.noSkill"));
             return;
         }
+        // Tabs the user never opened for this skill still hold another skill's values
+        fillTab(TAB_BASIC);
+        fillTab(TAB_SETS);
+        fillTab(TAB_TABLES);
         
         currentSkill.setName(txtName.getText());
         try {
@@ -827,9 +1398,9 @@ public class SkillEditorGUI extends JFrame {
             }
         }
         currentSkill.setTables(newTables);
+        skillManager.updateSkill(currentSkill);
         
         JOptionPane.showMessageDialog(this, getMsg("success.updated"));
-        refreshSkillTable(skillManager.getSkills());
         updateStatus(getMsg("status.updated") + " " + currentSkill.getSkillId());
     }
     
@@ -838,26 +1409,24 @@ public class SkillEditorGUI extends JFrame {
     }
     
     private void newSkill() {
+        if (isLoading()) return;
         int newId = skillManager.getNextSkillId();
         Skill skill = new Skill();
         skill.setSkillId(newId);
         skill.setName("New Skill");
         skill.setLevels(1);
+        skill.setSourceFile(currentSkill != null ? currentSkill.getSourceFile() : null);
         
         skillManager.addSkill(skill);
-        refreshSkillTable(skillManager.getSkills());
-        
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            if ((int) tableModel.getValueAt(i, 0) == newId) {
-                skillTable.setRowSelectionInterval(i, i);
-                break;
-            }
-        }
+        skillManager.updateSkill(skill);
+        // Once the change has reached the table
+        SwingUtilities.invokeLater(() -> selectSkill(skill, true));
         
         updateStatus(getMsg("status.created") + " " + newId);
     }
     
     private void cloneSkill() {
+        if (isLoading()) return;
         if (currentSkill == null) {
             JOptionPane.showMessageDialog(this, getMsg("error.selectSkill"));
             return;
@@ -871,13 +1440,15 @@ public class SkillEditorGUI extends JFrame {
         clone.setEnchantGroup2(currentSkill.getEnchantGroup2());
         clone.setEnchantGroup3(currentSkill.getEnchantGroup3());
         clone.setEnchantGroup4(currentSkill.getEnchantGroup4());
+        clone.setSourceFile(currentSkill.getSourceFile());
         
         skillManager.addSkill(clone);
-        refreshSkillTable(skillManager.getSkills());
+        skillManager.updateSkill(clone);
         updateStatus(getMsg("status.created") + " " + clone.getSkillId());
     }
     
     private void deleteSkill() {
+        if (isLoading()) return;
         if (currentSkill == null) {
             JOptionPane.showMessageDialog(this, getMsg("error.selectSkillDelete"));
             return;
@@ -890,7 +1461,6 @@ public class SkillEditorGUI extends JFrame {
             
         if (confirm == JOptionPane.YES_OPTION) {
             skillManager.removeSkill(currentSkill);
-            refreshSkillTable(skillManager.getSkills());
             currentSkill = null;
             clearEditor();
             updateStatus(getMsg("status.deleted"));
@@ -962,6 +1532,8 @@ public class SkillEditorGUI extends JFrame {
         tablesTableModel.setRowCount(0);
         effectsArea.setText("");
         conditionsArea.setText("");
+        refreshReferences();
+        Arrays.fill(tabSkill, null);
     }
     
     private void validateSkills() {
@@ -981,6 +1553,23 @@ public class SkillEditorGUI extends JFrame {
                 report.append(getMsg("validation.invalidLevels") + " " + skill).append("\n");
                 errors++;
             }
+            // Every level needs a value; enchant tables are indexed by enchant level instead
+            for (SkillTable table : skill.getTables()) {
+                String tableName = table.getName() != null ? table.getName() : "";
+                if (!tableName.startsWith("#ench") && table.size() < skill.getLevels()) {
+                    report.append(getMsg("validation.tableTooShort") + " " + skill + " " + tableName
+                        + " (" + table.size() + "/" + skill.getLevels() + ")").append("\n");
+                    errors++;
+                }
+            }
+        }
+        
+        // Ids used by items or skill trees that no skill has
+        if (workspace.hasDatapack()) {
+            for (int id : workspace.getReferences().missing(skillManager)) {
+                report.append(getMsg("validation.missingSkill") + " " + id).append("\n");
+                errors++;
+            }
         }
         
         if (errors == 0) {
@@ -1047,7 +1636,12 @@ public class SkillEditorGUI extends JFrame {
         }
         
         SwingUtilities.invokeLater(() -> {
-            new SkillEditorGUI().setVisible(true);
+            SkillEditorGUI editor = new SkillEditorGUI();
+            editor.setVisible(true);
+            // java -jar LineageSkillEditor.jar <datapack root>
+            if (args.length > 0) {
+                editor.loadDatapack(new File(args[0]));
+            }
         });
     }
 }
\ No newline at end of file
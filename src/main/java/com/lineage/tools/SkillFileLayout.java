@@ -0,0 +1,246 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Where every <skill> of a source file sits, so a save can copy the skills that
+// were not edited straight from the old file (FileChannel.transferTo) and only
+// serialize the dirty ones. Each skill owns the bytes from the end of the
+// previous skill to its own end tag, so comments and blank lines before it
+// travel with it; the prefix and tail (root tags) are copied as they are.
+class SkillFileLayout {
+
+    private final SnapshotCache.Key key;
+    private final List<Skill> skills;
+    private final long[] segmentStarts;
+    private final long[] elementStarts;
+    private final long[] elementEnds;
+    private final long prefixEnd;
+    private final String newline;
+    private final String indent;
+
+    private SkillFileLayout(SnapshotCache.Key key, List<Skill> skills, long[] segmentStarts, long[] elementStarts,
+                            long[] elementEnds, long prefixEnd, String newline, String indent) {
+        this.key = key;
+        this.skills = skills;
+        this.segmentStarts = segmentStarts;
+        this.elementStarts = elementStarts;
+        this.elementEnds = elementEnds;
+        this.prefixEnd = prefixEnd;
+        this.newline = newline;
+        this.indent = indent;
+    }
+
+    SnapshotCache.Key getKey() { return key; }
+
+    // Maps the skills (in file order, as loaded) onto the <skill> elements of
+    // the file. Null when the file cannot be spliced: not UTF-8, no skills, or
+    // a different number of elements than skills.
+    static SkillFileLayout scan(File source, SnapshotCache.Key key, List<Skill> skills) throws IOException {
+        byte[] xml = Files.readAllBytes(source.toPath());
+        if (skills.isEmpty() || !isUtf8(xml)) return null;
+        List<int[]> ranges = SkillSliceScanner.scan(xml);
+        if (ranges.size() != skills.size()) return null;
+
+        int n = ranges.size();
+        long[] segmentStarts = new long[n];
+        long[] elementStarts = new long[n];
+        long[] elementEnds = new long[n];
+        for (int i = 0; i < n; i++) {
+            int[] range = ranges.get(i);
+            if (range[SkillSliceScanner.SKILL_END] < 0) return null;
+            elementStarts[i] = range[SkillSliceScanner.SKILL_START];
+            elementEnds[i] = range[SkillSliceScanner.SKILL_END];
+        }
+
+        // The prefix stops at the line break before the first skill, which
+        // then owns its own line break and indentation like all the others
+        int first = (int) elementStarts[0];
+        int lineStart = first;
+        while (lineStart > 0 && (xml[lineStart - 1] == ' ' || xml[lineStart - 1] == '\t')) lineStart--;
+        String indent = "    ";
+        String newline = "\n";
+        long prefixEnd = first;
+        if (lineStart > 0 && xml[lineStart - 1] == '\n') {
+            if (lineStart < first) {
+                indent = new String(xml, lineStart, first - lineStart, StandardCharsets.US_ASCII);
+            }
+            prefixEnd = lineStart - 1;
+            if (prefixEnd > 0 && xml[(int) prefixEnd - 1] == '\r') {
+                newline = "\r\n";
+                prefixEnd--;
+            }
+        }
+        segmentStarts[0] = prefixEnd;
+        for (int i = 1; i < n; i++) {
+            segmentStarts[i] = elementEnds[i - 1];
+        }
+        return new SkillFileLayout(key, new ArrayList<>(skills), segmentStarts, elementStarts, elementEnds,
+            prefixEnd, newline, indent);
+    }
+
+    // No BOM other than UTF-8's, and no encoding other than UTF-8 declared
+    private static boolean isUtf8(byte[] xml) {
+        if (xml.length >= 2 && ((xml[0] == (byte) 0xFE && xml[1] == (byte) 0xFF)
+                || (xml[0] == (byte) 0xFF && xml[1] == (byte) 0xFE))) {
+            return false;
+        }
+        int start = xml.length >= 3 && xml[0] == (byte) 0xEF ? 3 : 0;
+        String head = new String(xml, start, Math.min(xml.length - start, 200), StandardCharsets.ISO_8859_1);
+        if (!head.startsWith("<?xml")) return true;
+        String declaration = head.substring(0, Math.max(head.indexOf("?>"), 0));
+        int at = declaration.indexOf("encoding");
+        if (at < 0) return true;
+        String rest = declaration.substring(at).toLowerCase();
+        return rest.matches("encoding\\s*=\\s*[\"']utf-8[\"'].*");
+    }
+
+    // Writes content to source (atomically, see ModelXmlWriter.replace), copying every skill that
+    // is part of this layout and not dirty. The dirty ones are serialized from the copy they map
+    // to. Returns the layout of the new file.
+    SkillFileLayout write(File source, List<Skill> content, Map<Skill, Skill> dirty) throws IOException {
+        Map<Skill, Integer> ordinals = new IdentityHashMap<>();
+        for (int i = 0; i < skills.size(); i++) {
+            ordinals.put(skills.get(i), i);
+        }
+
+        int n = content.size();
+        long[] newSegmentStarts = new long[n];
+        long[] newElementStarts = new long[n];
+        long[] newElementEnds = new long[n];
+
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            ModelXmlWriter.replace(source, out -> {
+                Splicer splicer = new Splicer(in, out);
+                splicer.copy(0, prefixEnd);
+                for (int k = 0; k < n; k++) {
+                    Skill skill = content.get(k);
+                    Integer i = ordinals.remove(skill);
+                    Skill copy = dirty.get(skill);
+                    newSegmentStarts[k] = splicer.position();
+                    if (i != null && copy == null) {
+                        newElementStarts[k] = splicer.position() + (elementStarts[i] - segmentStarts[i]);
+                        splicer.copy(segmentStarts[i], elementEnds[i]);
+                    } else {
+                        // Comments and blank lines before an edited skill are kept,
+                        // its own line break and indentation come from the writer
+                        if (i != null) {
+                            splicer.copy(segmentStarts[i], lineStart(in, segmentStarts[i], elementStarts[i]));
+                        }
+                        newElementStarts[k] = splicer.serialize(copy != null ? copy : skill);
+                    }
+                    newElementEnds[k] = splicer.position();
+                }
+                splicer.copy(elementEnds[skills.size() - 1], in.size());
+                splicer.flush();
+                return splicer.position();
+            });
+        }
+
+        return new SkillFileLayout(SnapshotCache.key(source), new ArrayList<>(content), newSegmentStarts,
+            newElementStarts, newElementEnds, prefixEnd, newline, indent);
+    }
+
+    // Start of the line break before an element, when only indentation
+    // separates them; otherwise the element start itself
+    private long lineStart(FileChannel in, long from, long elementStart) throws IOException {
+        int length = (int) (elementStart - from);
+        ByteBuffer gap = ByteBuffer.allocate(length);
+        while (gap.hasRemaining() && in.read(gap, from + gap.position()) > 0) {}
+        int end = length;
+        while (end > 0 && (gap.get(end - 1) == ' ' || gap.get(end - 1) == '\t')) end--;
+        if (end > 0 && gap.get(end - 1) == '\n') {
+            end--;
+            if (end > 0 && gap.get(end - 1) == '\r') end--;
+            return from + end;
+        }
+        return elementStart;
+    }
+
+    // Interleaves zero-copy ranges of the old file with serialized skills.
+    // Adjacent ranges (runs of untouched skills) become a single transfer.
+    private class Splicer {
+        private final FileChannel in;
+        private final FileChannel out;
+        private final XmlOutput xml;
+        private long copied;
+        private long pendingFrom;
+        private long pendingTo;
+
+        Splicer(FileChannel in, FileChannel out) {
+            this.in = in;
+            this.out = out;
+            this.xml = new XmlOutput(out, newline, indent, 1);
+        }
+
+        long position() {
+            return copied + (pendingTo - pendingFrom) + xml.getBytesWritten();
+        }
+
+        void copy(long from, long to) throws IOException {
+            if (to <= from) return;
+            if (from != pendingTo) {
+                transferPending();
+                pendingFrom = from;
+            }
+            pendingTo = to;
+        }
+
+        // Returns the offset of the start tag (after the line break and indent)
+        long serialize(Skill skill) throws IOException {
+            transferPending();
+            long elementStart = position() + newline.length() + indent.length();
+            ModelXmlWriter.writeSkill(xml, skill);
+            return elementStart;
+        }
+
+        void flush() throws IOException {
+            transferPending();
+            xml.flush();
+        }
+
+        private void transferPending() throws IOException {
+            long count = pendingTo - pendingFrom;
+            if (count > 0) {
+                xml.flush();
+                long done = 0;
+                while (done < count) {
+                    done += in.transferTo(pendingFrom + done, count - done, out);
+                }
+                copied += done;
+            }
+            pendingFrom = pendingTo = 0;
+        }
+    }
+}
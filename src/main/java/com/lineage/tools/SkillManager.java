@@ -27,10 +27,14 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @XmlRootElement(name = "list")
 @XmlAccessorType(XmlAccessType.FIELD)
@@ -39,54 +43,574 @@ public class SkillManager {
     @XmlElement(name = "skill")
     private List<Skill> skills = new ArrayList<>();
     
+    @XmlTransient
+    private final IntIndex<Skill> byId = new IntIndex<>(Skill::getSkillId);
+    @XmlTransient
+    private final IdAllocator<Skill> ids = new IdAllocator<>(Skill::getSkillId);
+    @XmlTransient
+    private final TrigramIndex<Skill> text = new TrigramIndex<>(s -> s.getSkillId() + "\0" + s.getName());
+    @XmlTransient
+    private final SkillValueIndex values = new SkillValueIndex();
+    
+    // Set when the skills were loaded from a split datapack folder
+    @XmlTransient
+    private File sourceDirectory;
+    
+    // Snapshot key of every file as last read or written, to tell real
+    // external changes from our own saves
+    @XmlTransient
+    private final Map<File, SnapshotCache.Key> fileKeys = new ConcurrentHashMap<>();
+    
+    // Keep effects/conditions as raw XML until a skill is opened (see Skill.materialize)
+    @XmlTransient
+    private volatile boolean lazyLoading;
+    
+    // Skills of every file in the order they were read or last written, and
+    // where they sit in it (scanned on the first save), for spliced saves
+    @XmlTransient
+    private final Map<File, List<Skill>> fileOrder = new ConcurrentHashMap<>();
+    @XmlTransient
+    private final Map<File, SkillFileLayout> layouts = new ConcurrentHashMap<>();
+    
+    // Skills edited since they were read or written (see updateSkill) and ids
+    // removed since the last save, with the edit version of their last change,
+    // so a save only clears what its snapshot held
+    @XmlTransient
+    private final Map<Skill, Long> dirty = Collections.synchronizedMap(new IdentityHashMap<>());
+    @XmlTransient
+    private final Map<Integer, Long> removed = Collections.synchronizedMap(new HashMap<>());
+    
+    // Edits not saved yet, replayed after the next load of the same source
+    @XmlTransient
+    private EditJournal journal;
+    @XmlTransient
+    private EditJournal suspendedJournal;
+    @XmlTransient
+    private int recoveredEdits;
+    
+    // Bumped by every edit, for AutoSaver
+    @XmlTransient
+    private final AtomicLong editVersion = new AtomicLong();
+    @XmlTransient
+    private volatile Runnable editListener;
+    
+    // Ids added, removed or updated, for the editor windows showing this manager
+    @XmlTransient
+    private final ChangeBus changes = new ChangeBus();
+    
     public SkillManager() {}
     
     public List<Skill> getSkills() { return skills; }
-    public void setSkills(List<Skill> skills) { this.skills = skills; }
+    public void setSkills(List<Skill> skills) {
+        swap(skills);
+    }
+    
+    public ChangeBus getChanges() { return changes; }
     
     public void addSkill(Skill skill) {
-        skills.add(skill);
+        insert(skill);
     }
     
     public void removeSkill(Skill skill) {
-        skills.remove(skill);
+        delete(skill);
+        dirty.remove(skill);
+        removed.put(skill.getSkillId(), editVersion.incrementAndGet());
+        if (journal != null) journal.removeSkill(skill.getSkillId());
+        edited();
+    }
+    
+    // Must be called after a skill has been added or changed in place, so the
+    // edit is journaled and the next save serializes it again instead of
+    // copying its old bytes
+    public void updateSkill(Skill skill) {
+        dirty.put(skill, editVersion.incrementAndGet());
+        text.updated(skills, skill);
+        changes.updated(skill.getSkillId());
+        values.changed();
+        if (journal != null) journal.putSkill(skill);
+        edited();
+    }
+    
+    // Every change to the list itself goes through these, keeping the indexes
+    // current. They hold the search index's lock since searches run on the
+    // search thread (see SearchScheduler).
+    private void insert(Skill skill) {
+        synchronized (text) {
+            skills.add(skill);
+            changes.added(skill.getSkillId(), skills.size() - 1);
+            byId.added(skills, skill);
+            ids.added(skills, skill);
+            text.added(skills, skill);
+            values.changed();
+        }
+    }
+    
+    private void delete(Skill skill) {
+        synchronized (text) {
+            int row = skills.indexOf(skill);
+            if (row >= 0) {
+                skills.remove(row);
+                changes.removed(skill.getSkillId(), row);
+                byId.removed(skills, skill);
+                ids.removed(skills, skill);
+                text.removed(skills, skill);
+                values.changed();
+            }
+        }
+    }
+    
+    private void replace(Skill old, Skill skill) {
+        synchronized (text) {
+            skills.set(skills.indexOf(old), skill);
+            changes.updated(skill.getSkillId());
+            byId.replaced(skills, old, skill);
+            text.replaced(skills, old, skill);
+            values.changed();
+        }
+    }
+    
+    // A whole new list; byId and ids rebuild on it at their next lookup
+    private void swap(List<Skill> list) {
+        synchronized (text) {
+            this.skills = list;
+            changes.reset();
+            text.index(list);
+            values.changed();
+        }
+    }
+    
+    private void edited() {
+        Runnable listener = editListener;
+        if (listener != null) listener.run();
+    }
+    
+    public long getEditVersion() { return editVersion.get(); }
+    
+    // Called (on the editing thread) after every updateSkill/removeSkill
+    public void setEditListener(Runnable editListener) { this.editListener = editListener; }
+    
+    public boolean isDirty(Skill skill) {
+        return dirty.containsKey(skill);
     }
     
     public Skill findSkillById(int skillId) {
-        return skills.stream()
-                .filter(s -> s.getSkillId() == skillId)
-                .findFirst()
-                .orElse(null);
+        return byId.get(skills, skillId);
     }
     
     public List<Skill> searchSkills(String searchTerm) {
-        String term = searchTerm.toLowerCase();
-        return skills.stream()
-                .filter(s -> String.valueOf(s.getSkillId()).contains(term) ||
-                            s.getName().toLowerCase().contains(term))
-                .collect(Collectors.toList());
+        synchronized (text) {
+            return text.search(skills, searchTerm);
+        }
+    }
+    
+    // See SkillQuery; like searchSkills, may run on the search thread
+    public List<Skill> querySkills(SkillQuery query) {
+        synchronized (text) {
+            return query.run(skills, values);
+        }
     }
     
     public int getNextSkillId() {
-        return skills.stream()
-                .mapToInt(Skill::getSkillId)
-                .max()
-                .orElse(0) + 1;
+        return ids.next(skills);
     }
     
+    // Lowest unused id in [from, to] (e.g. a custom skill range), -1 if the range is full
+    public int findFreeSkillId(int from, int to) {
+        return ids.firstFree(skills, from, to);
+    }
+    
+    // Sets count consecutive unused ids in [from, to] aside for a bulk import and
+    // returns the first, -1 if there is no such block
+    public int reserveSkillIds(int count, int from, int to) {
+        return ids.reserve(skills, count, from, to);
+    }
+    
+    public void releaseSkillIds(int from, int count) {
+        ids.release(from, count);
+    }
+    
+    public File getSourceDirectory() { return sourceDirectory; }
+    
+    public boolean isLazyLoading() { return lazyLoading; }
+    public void setLazyLoading(boolean lazyLoading) { this.lazyLoading = lazyLoading; }
+    
     public void loadFromFile(File file) throws Exception {
-        JAXBContext context = JAXBContext.newInstance(SkillManager.class);
-        Unmarshaller unmarshaller = context.createUnmarshaller();
-        SkillManager loaded = (SkillManager) unmarshaller.unmarshal(file);
-        this.skills = loaded.getSkills();
+        applyLoad(readFile(file, null, LoadMonitor.NONE));
         System.out.println("Loaded " + skills.size() + " skills!");
     }
     
+    public int loadFromDirectory(File dir) throws Exception {
+        LoadResult<Skill> result = readDirectory(dir, null, LoadMonitor.NONE);
+        applyLoad(result);
+        System.out.println("Loaded " + skills.size() + " skills from " + result.getFileCount() + " files!");
+        return result.getFileCount();
+    }
+    
+    // Background half of a load (see LoadWorker): reads into a LoadResult without
+    // touching the manager. Every skill is also handed to sink as soon as it has
+    // been read, so the table can fill while the rest of the file is loading.
+    public LoadResult<Skill> readFile(File file, Consumer<Skill> sink, LoadMonitor monitor) throws Exception {
+        return readFile(file, sink, monitor, new StringPool());
+    }
+    
+    // strings is shared by the parts of a datapack (see Workspace.read)
+    public LoadResult<Skill> readFile(File file, Consumer<Skill> sink, LoadMonitor monitor, StringPool strings) throws Exception {
+        Map<File, SnapshotCache.Key> keys = new HashMap<>();
+        List<Skill> loaded = readSkillFile(file, sink, monitor, keys, strings);
+        return new LoadResult<>(loaded, keys, file, false, strings);
+    }
+    
+    public LoadResult<Skill> readDirectory(File dir, Consumer<Skill> sink, LoadMonitor monitor) throws Exception {
+        return readDirectory(dir, sink, monitor, new StringPool());
+    }
+    
+    public LoadResult<Skill> readDirectory(File dir, Consumer<Skill> sink, LoadMonitor monitor, StringPool strings) throws Exception {
+        List<File> files = DatapackLoader.listXmlFiles(dir);
+        Map<File, SnapshotCache.Key> keys = new ConcurrentHashMap<>();
+        // Files are parsed in parallel, the sink gets them whole and in file order
+        List<List<Skill>> perFile = DatapackLoader.parseAll(files, f -> readSkillFile(f, null, monitor, keys, strings),
+            sink == null ? null : part -> part.forEach(sink));
+        
+        List<Skill> merged = new ArrayList<>(perFile.stream().mapToInt(List::size).sum());
+        for (List<Skill> part : perFile) {
+            merged.addAll(part);
+        }
+        return new LoadResult<>(merged, keys, dir, true, strings);
+    }
+    
+    // EDT half of a load
+    public synchronized void applyLoad(LoadResult<Skill> result) {
+        swap(result.getEntries());
+        ids.releaseAll();
+        this.sourceDirectory = result.getSourceDirectory();
+        fileKeys.clear();
+        fileKeys.putAll(result.getFileKeys());
+        dirty.clear();
+        removed.clear();
+        layouts.clear();
+        fileOrder.clear();
+        for (Skill skill : skills) {
+            if (skill.getSourceFile() != null) {
+                fileOrder.computeIfAbsent(skill.getSourceFile(), f -> new ArrayList<>()).add(skill);
+            }
+        }
+        openJournal(result.getSource(), result.getStrings());
+    }
+    
+    // Number of unsaved edits the last load found in the journal and re-applied
+    public int getRecoveredEdits() { return recoveredEdits; }
+    
+    private void openJournal(File source, StringPool strings) {
+        closeJournal();
+        recoveredEdits = 0;
+        if (source == null) return;
+        try {
+            journal = EditJournal.open(source, fileKeys);
+        } catch (IOException e) {
+            System.err.println("Could not open edit journal for " + source + ": " + e.getMessage());
+            return;
+        }
+        for (EditJournal.Entry entry : journal.getRecovered()) {
+            if (entry.kind() == EditJournal.SKILL_PUT) {
+                Skill skill = (Skill) entry.value();
+                strings.dedupe(skill);
+                Skill old = findSkillById(skill.getSkillId());
+                if (old != null) {
+                    replace(old, skill);
+                } else {
+                    insert(skill);
+                }
+                dirty.put(skill, 0L);
+                recoveredEdits++;
+            } else if (entry.kind() == EditJournal.SKILL_REMOVE) {
+                Skill old = findSkillById(entry.id());
+                if (old != null) delete(old);
+                removed.put(entry.id(), 0L);
+                recoveredEdits++;
+            }
+        }
+        if (recoveredEdits > 0) {
+            editVersion.incrementAndGet();
+            System.out.println("Recovered " + recoveredEdits + " unsaved edits from " + journal.getFile());
+        }
+    }
+    
+    // While a load fills the list the journal of the previous source must not
+    // see any change; a failed or cancelled load gives it back with the old skills
+    public void suspendJournal() {
+        if (journal == null) return;
+        suspendedJournal = journal;
+        journal = null;
+    }
+    
+    public void resumeJournal() {
+        if (suspendedJournal == null) return;
+        journal = suspendedJournal;
+        suspendedJournal = null;
+    }
+    
+    public void closeJournal() {
+        resumeJournal();
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Could not close edit journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+    
+    // Snapshot if the file is unchanged since it was last read, otherwise a
+    // streaming StAX parse (same result as the JAXB mapping)
+    private List<Skill> readSkillFile(File file, Consumer<Skill> sink, LoadMonitor monitor,
+                                      Map<File, SnapshotCache.Key> keys, StringPool strings) throws Exception {
+        File source = DatapackLoader.normalize(file);
+        SnapshotCache.Key key = SnapshotCache.key(source);
+        boolean lazy = lazyLoading;
+        List<Skill> loaded = SnapshotCache.loadSkills(source, key, lazy);
+        if (loaded != null) {
+            monitor.bytesRead(key.size());
+            for (Skill skill : loaded) {
+                skill.setSourceFile(source);
+                strings.dedupe(skill);
+                if (sink != null) sink.accept(skill);
+            }
+        } else {
+            List<Skill> parsed = new ArrayList<>();
+            new SkillXmlReader(lazy).read(source, monitor, skill -> {
+                skill.setSourceFile(source);
+                strings.dedupe(skill);
+                parsed.add(skill);
+                if (sink != null) sink.accept(skill);
+            });
+            SnapshotCache.storeSkills(source, key, parsed, lazy);
+            loaded = parsed;
+        }
+        keys.put(source, key);
+        return loaded;
+    }
+    
+    public Set<File> getSourceFiles() {
+        return Collections.unmodifiableSet(fileKeys.keySet());
+    }
+    
+    // Re-reads a file reported by the DatapackWatcher. Returns null when the
+    // content is the same as what we last read or wrote (e.g. our own save).
+    // Safe to call off the EDT; the result is applied with replaceFileSkills.
+    public List<Skill> parseChangedFile(File file) throws Exception {
+        File source = DatapackLoader.normalize(file);
+        if (!source.isFile() || SnapshotCache.key(source).equals(fileKeys.get(source))) {
+            return null;
+        }
+        return readSkillFile(source, null, LoadMonitor.NONE, fileKeys, new StringPool());
+    }
+    
+    // Swaps the skills of one source file for a freshly parsed copy. Skills whose
+    // content did not change keep their existing instance. Unsaved edits win over
+    // the file: a dirty skill stays as edited and a removed one stays removed,
+    // so the journal still describes what is left to save.
+    public ModelChange replaceFileSkills(File file, List<Skill> reloaded) {
+        File source = DatapackLoader.normalize(file);
+        ModelChange change = new ModelChange();
+        Map<Integer, Skill> previous = new LinkedHashMap<>();
+        List<Skill> kept = new ArrayList<>(skills.size() + reloaded.size());
+        int insertAt = -1;
+        for (Skill skill : skills) {
+            if (source.equals(skill.getSourceFile())) {
+                if (insertAt < 0) insertAt = kept.size();
+                previous.putIfAbsent(skill.getSkillId(), skill);
+            } else {
+                kept.add(skill);
+            }
+        }
+        if (insertAt < 0) insertAt = kept.size();
+        
+        // order is the file as it is now, merged what stays in the list
+        List<Skill> order = new ArrayList<>(reloaded.size());
+        List<Skill> merged = new ArrayList<>(reloaded.size());
+        for (Skill skill : reloaded) {
+            Skill old = previous.remove(skill.getSkillId());
+            if (old == null) {
+                if (removed.containsKey(skill.getSkillId())) {
+                    order.add(skill);
+                    continue;
+                }
+                change.getAdded().add(skill.getSkillId());
+            } else if (sameContent(old, skill)) {
+                // Also ends an edit that the file now holds as well
+                dirty.remove(old);
+                order.add(old);
+                merged.add(old);
+                continue;
+            } else if (dirty.containsKey(old)) {
+                order.add(old);
+                merged.add(old);
+                continue;
+            } else {
+                change.getUpdated().add(skill.getSkillId());
+            }
+            order.add(skill);
+            merged.add(skill);
+        }
+        for (Skill old : previous.values()) {
+            if (dirty.containsKey(old)) {
+                merged.add(old);
+            } else {
+                change.getRemoved().add(old.getSkillId());
+            }
+        }
+        
+        kept.addAll(insertAt, merged);
+        swap(kept);
+        layouts.remove(source);
+        fileOrder.put(source, order);
+        compactJournal();
+        return change;
+    }
+    
+    // Compares the way the two would be saved: a skill kept raw by a lazy load
+    // and a parsed one encode differently even with the same content
+    private static boolean sameContent(Skill a, Skill b) {
+        if (a.isMaterialized() != b.isMaterialized()) {
+            a.materialize();
+            b.materialize();
+        }
+        return Arrays.equals(ModelCodec.encode(a), ModelCodec.encode(b));
+    }
+    
+    // Rewrites the journal to hold just the edits still unsaved, on top of the
+    // files as they are now
+    private void compactJournal() {
+        if (journal == null) return;
+        try {
+            long mark = journal.mark();
+            synchronized (removed) {
+                removed.keySet().forEach(journal::removeSkill);
+            }
+            synchronized (dirty) {
+                dirty.keySet().forEach(journal::putSkill);
+            }
+            journal.discard(mark, fileKeys);
+        } catch (IOException e) {
+            System.err.println("Could not compact edit journal: " + e.getMessage());
+        }
+    }
+    
+    // What a save writes, taken on the EDT: the content of every file, the dirty
+    // skills with the edit version they were dirtied by and a copy of each to
+    // serialize, the pending removals, and the journal position they cover
+    public record SaveSnapshot(Map<File, List<Skill>> files, Map<Skill, Long> dirty, Map<Skill, Skill> copies,
+                               Map<Integer, Long> removed, long journalMark) {}
+    
+    // Every skill back to the file it came from. Skills without a source file
+    // (created after loading) go to the last file of the datapack. Null when
+    // nothing was loaded from files. Must be called on the EDT.
+    public SaveSnapshot snapshot() throws IOException {
+        if (fileKeys.isEmpty()) return null;
+        Map<File, List<Skill>> byFile = new LinkedHashMap<>();
+        List<Skill> orphans = new ArrayList<>();
+        for (Skill skill : skills) {
+            if (skill.getSourceFile() != null) {
+                byFile.computeIfAbsent(skill.getSourceFile(), f -> new ArrayList<>()).add(skill);
+            } else {
+                orphans.add(skill);
+            }
+        }
+        if (!orphans.isEmpty()) {
+            if (byFile.isEmpty()) {
+                throw new IllegalStateException("No source file to save new skills to");
+            }
+            File last = null;
+            for (File f : byFile.keySet()) last = f;
+            for (Skill skill : orphans) skill.setSourceFile(last);
+            byFile.get(last).addAll(orphans);
+        }
+        return snapshot(byFile);
+    }
+    
+    private SaveSnapshot snapshot(Map<File, List<Skill>> files) throws IOException {
+        long mark = journal != null ? journal.mark() : 0;
+        Map<Skill, Long> edited;
+        synchronized (dirty) {
+            edited = new IdentityHashMap<>(dirty);
+        }
+        Map<Skill, Skill> copies = new IdentityHashMap<>();
+        for (Skill skill : edited.keySet()) {
+            copies.put(skill, ModelCodec.copy(skill));
+        }
+        Map<Integer, Long> removals;
+        synchronized (removed) {
+            removals = new HashMap<>(removed);
+        }
+        return new SaveSnapshot(files, edited, copies, removals, mark);
+    }
+    
+    // Writes a snapshot; safe off the EDT. Dirty entries and removals are only
+    // cleared if they were not changed again since the snapshot was taken.
+    public synchronized int save(SaveSnapshot snapshot) throws Exception {
+        for (Map.Entry<File, List<Skill>> entry : snapshot.files().entrySet()) {
+            writeFile(entry.getKey(), entry.getValue(), snapshot.copies());
+        }
+        snapshot.dirty().forEach(dirty::remove);
+        snapshot.removed().forEach(removed::remove);
+        if (journal != null) journal.discard(snapshot.journalMark(), fileKeys);
+        return snapshot.files().size();
+    }
+    
+    public int saveToSourceFiles() throws Exception {
+        SaveSnapshot snapshot = snapshot();
+        if (snapshot == null) {
+            throw new IllegalStateException("No source file to save to");
+        }
+        return save(snapshot);
+    }
+    
     public void saveToFile(File file) throws Exception {
-        JAXBContext context = JAXBContext.newInstance(SkillManager.class);
-        Marshaller marshaller = context.createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-        marshaller.marshal(this, file);
+        Map<File, List<Skill>> files = new LinkedHashMap<>();
+        files.put(file, new ArrayList<>(skills));
+        save(snapshot(files));
+    }
+    
+    private void writeFile(File file, List<Skill> content, Map<Skill, Skill> copies) throws Exception {
+        File source = DatapackLoader.normalize(file);
+        List<Skill> written = new ArrayList<>(content.size());
+        for (Skill skill : content) {
+            written.add(copies.getOrDefault(skill, skill));
+        }
+        SkillFileLayout layout = spliceLayout(source, content);
+        if (layout != null) {
+            // Only the dirty skills are serialized, the rest is copied from the old file
+            layout = layout.write(source, content, copies);
+            layouts.put(source, layout);
+        } else {
+            // Streaming writer, raw subtrees of a lazy load are copied without parsing
+            ModelXmlWriter.writeSkills(file, written);
+            layouts.remove(source);
+        }
+        fileOrder.put(source, new ArrayList<>(content));
+        
+        // Refresh the snapshot so reopening the saved file skips the parse
+        SnapshotCache.Key key = layout != null ? layout.getKey() : SnapshotCache.key(source);
+        SnapshotCache.storeSkills(source, key, written, lazyLoading);
+        fileKeys.put(source, key);
+    }
+    
+    // Layout of the file as we last read or wrote it, or null when it has to be
+    // written in full (new file, changed on disk since, nothing to keep)
+    private SkillFileLayout spliceLayout(File source, List<Skill> content) throws Exception {
+        List<Skill> order = fileOrder.get(source);
+        SnapshotCache.Key expected = fileKeys.get(source);
+        if (order == null || expected == null || content.isEmpty() || !source.isFile()) {
+            return null;
+        }
+        SnapshotCache.Key key = SnapshotCache.key(source);
+        if (!key.equals(expected)) {
+            return null;
+        }
+        SkillFileLayout layout = layouts.get(source);
+        if (layout == null || !layout.getKey().equals(key)) {
+            layout = SkillFileLayout.scan(source, key, order);
+        }
+        return layout;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,404 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Attribute queries over skills, e.g.
+//
+//   operateType=A1 and targetType=TARGET_ONE and #power[1] > 100
+//   (magicLvl >= 80 or enchantGroup1 = 2) and not name ~ "blow"
+//
+// A field is a skill attribute (id, levels, name, enchantGroup1..4, or
+// enchantGroup for any of the four), a table (#power, any level; #power[3],
+// level 3) or otherwise the name of a <set>. A set whose value points to a
+// table (val="#power") is compared with the table's values, so power[1] > 100
+// works too. Operators: = != < <= > >= and ~ (contains). Values compare as
+// numbers when both sides are numbers, otherwise as case-insensitive text.
+// Terms are joined with and (also "," or just a space), or and not, with
+// parentheses for grouping. A missing field matches nothing.
+//
+// Queries compile to a Predicate. run() first narrows the list to the
+// intersection of the per-set value index entries of the set = value terms
+// the whole query depends on, then filters what is left, in parallel for
+// large lists.
+public class SkillQuery {
+
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    enum Op { EQ, NE, LT, LE, GT, GE, CONTAINS }
+
+    // ========== SYNTAX TREE ==========
+
+    sealed interface Node permits And, Or, Not, Term {}
+
+    record And(List<Node> parts) implements Node {}
+    record Or(List<Node> parts) implements Node {}
+    record Not(Node part) implements Node {}
+
+    // level 0 = any level
+    record Term(String field, int level, Op op, String value) implements Node {}
+
+    private final String text;
+    private final Node root;
+    private final Predicate<Skill> predicate;
+
+    private SkillQuery(String text, Node root) {
+        this.text = text;
+        this.root = root;
+        this.predicate = compile(root);
+    }
+
+    public static SkillQuery parse(String text) throws ParseException {
+        return new SkillQuery(text, new Parser(text).parse());
+    }
+
+    public String getText() { return text; }
+
+    public boolean matches(Skill skill) {
+        return predicate.test(skill);
+    }
+
+    // Matching skills in list order
+    public List<Skill> run(List<Skill> skills, SkillValueIndex index) {
+        List<Skill> candidates = skills;
+        int[] narrowed = null;
+        for (Term term : indexedTerms(root)) {
+            int[] positions = index.positions(skills, term.field(), term.value());
+            narrowed = narrowed == null ? positions : intersect(narrowed, positions);
+        }
+        if (narrowed != null) {
+            candidates = new ArrayList<>(narrowed.length);
+            for (int position : narrowed) {
+                candidates.add(skills.get(position));
+            }
+        }
+        if (candidates.size() >= PARALLEL_THRESHOLD) {
+            return candidates.parallelStream().filter(predicate).collect(Collectors.toList());
+        }
+        List<Skill> result = new ArrayList<>();
+        for (Skill skill : candidates) {
+            if (predicate.test(skill)) result.add(skill);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    // set = value terms that every match must satisfy
+    private static List<Term> indexedTerms(Node node) {
+        List<Term> terms = new ArrayList<>();
+        if (node instanceof Term term) {
+            if (term.op() == Op.EQ && term.level() == 0 && isSetField(term.field())) terms.add(term);
+        } else if (node instanceof And and) {
+            for (Node part : and.parts()) terms.addAll(indexedTerms(part));
+        }
+        return terms;
+    }
+
+    // ========== EVALUATION ==========
+
+    private static Predicate<Skill> compile(Node node) {
+        if (node instanceof And and) {
+            List<Predicate<Skill>> parts = and.parts().stream().map(SkillQuery::compile).toList();
+            return skill -> {
+                for (Predicate<Skill> part : parts) {
+                    if (!part.test(skill)) return false;
+                }
+                return true;
+            };
+        }
+        if (node instanceof Or or) {
+            List<Predicate<Skill>> parts = or.parts().stream().map(SkillQuery::compile).toList();
+            return skill -> {
+                for (Predicate<Skill> part : parts) {
+                    if (part.test(skill)) return true;
+                }
+                return false;
+            };
+        }
+        if (node instanceof Not not) {
+            return compile(not.part()).negate();
+        }
+        return compileTerm((Term) node);
+    }
+
+    private static Predicate<Skill> compileTerm(Term term) {
+        String field = term.field();
+        Op op = term.op();
+        String value = term.value();
+        double number = SkillValueIndex.number(value);
+        int level = term.level();
+        switch (field) {
+            case "id": return skill -> compare(Integer.toString(skill.getSkillId()), skill.getSkillId(), op, value, number);
+            case "levels": return skill -> compare(Integer.toString(skill.getLevels()), skill.getLevels(), op, value, number);
+            case "name": return skill -> compare(skill.getName(), op, value, number);
+            case "enchantGroup1": return skill -> compare(skill.getEnchantGroup1(), op, value, number);
+            case "enchantGroup2": return skill -> compare(skill.getEnchantGroup2(), op, value, number);
+            case "enchantGroup3": return skill -> compare(skill.getEnchantGroup3(), op, value, number);
+            case "enchantGroup4": return skill -> compare(skill.getEnchantGroup4(), op, value, number);
+            case "enchantGroup": return skill -> compare(skill.getEnchantGroup1(), op, value, number)
+                || compare(skill.getEnchantGroup2(), op, value, number)
+                || compare(skill.getEnchantGroup3(), op, value, number)
+                || compare(skill.getEnchantGroup4(), op, value, number);
+            default:
+                break;
+        }
+        if (field.startsWith("#")) {
+            return skill -> compareTable(skill.getTable(field), level, op, value, number);
+        }
+        return skill -> {
+            String val = skill.getSetValue(field);
+            if (val == null) return false;
+            if (val.startsWith("#")) {
+                return compareTable(skill.getTable(val), level, op, value, number);
+            }
+            return compare(val, op, value, number);
+        };
+    }
+
+    static boolean isSetField(String field) {
+        switch (field) {
+            case "id": case "levels": case "name": case "enchantGroup":
+            case "enchantGroup1": case "enchantGroup2": case "enchantGroup3": case "enchantGroup4":
+                return false;
+            default:
+                return !field.startsWith("#");
+        }
+    }
+
+    private static boolean compareTable(SkillTable table, int level, Op op, String value, double number) {
+        if (table == null) return false;
+        int size = table.size();
+        if (level > 0) {
+            return level <= size && compareAt(table, level, op, value, number);
+        }
+        for (int lvl = 1; lvl <= size; lvl++) {
+            if (compareAt(table, lvl, op, value, number)) return true;
+        }
+        return false;
+    }
+
+    private static boolean compareAt(SkillTable table, int level, Op op, String value, double number) {
+        // Numbers compare without their text; contains and text matches see
+        // the value as the XML has it
+        if (table.isNumeric() && op != Op.CONTAINS && !Double.isNaN(number)) {
+            return compare(null, table.valueAt(level), op, value, number);
+        }
+        return compare(table.stringAt(level), op, value, number);
+    }
+
+    private static boolean compare(String actual, Op op, String value, double number) {
+        if (actual == null) return false;
+        return compare(actual, SkillValueIndex.number(actual), op, value, number);
+    }
+
+    // actualText may be null when the actual value is only known as a number
+    private static boolean compare(String actualText, double actual, Op op, String value, double number) {
+        if (op == Op.CONTAINS) {
+            String text = actualText != null ? actualText : SkillValueIndex.format(actual);
+            return text.toLowerCase().contains(value.toLowerCase());
+        }
+        if (!Double.isNaN(actual) && !Double.isNaN(number)) {
+            int c = Double.compare(actual, number);
+            switch (op) {
+                case EQ: return c == 0;
+                case NE: return c != 0;
+                case LT: return c < 0;
+                case LE: return c <= 0;
+                case GT: return c > 0;
+                default: return c >= 0;
+            }
+        }
+        String text = actualText != null ? actualText : SkillValueIndex.format(actual);
+        switch (op) {
+            case EQ: return text.equalsIgnoreCase(value);
+            case NE: return !text.equalsIgnoreCase(value);
+            default: return false;
+        }
+    }
+
+    // ========== PARSER ==========
+
+    // query := or; or := and ("or" and)*; and := unary (("and" | ",")? unary)*;
+    // unary := "not" unary | "(" or ")" | field op value
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Node parse() throws ParseException {
+            Node node = parseOr();
+            skipSpace();
+            if (pos < text.length()) throw error("Unexpected '" + text.charAt(pos) + "'");
+            return node;
+        }
+
+        private Node parseOr() throws ParseException {
+            List<Node> parts = new ArrayList<>();
+            parts.add(parseAnd());
+            while (keyword("or") || symbol("||") || symbol("|")) {
+                parts.add(parseAnd());
+            }
+            return parts.size() == 1 ? parts.get(0) : new Or(parts);
+        }
+
+        private Node parseAnd() throws ParseException {
+            List<Node> parts = new ArrayList<>();
+            parts.add(parseUnary());
+            while (true) {
+                if (keyword("and") || symbol("&&") || symbol("&") || symbol(",")) {
+                    parts.add(parseUnary());
+                    continue;
+                }
+                skipSpace();
+                if (pos == text.length() || text.charAt(pos) == ')' || peekKeyword("or")
+                        || text.startsWith("|", pos)) {
+                    break;
+                }
+                parts.add(parseUnary());
+            }
+            return parts.size() == 1 ? parts.get(0) : new And(parts);
+        }
+
+        private Node parseUnary() throws ParseException {
+            if (keyword("not") || (!peek("!=") && symbol("!"))) {
+                return new Not(parseUnary());
+            }
+            if (symbol("(")) {
+                Node node = parseOr();
+                if (!symbol(")")) throw error("Missing ')'");
+                return node;
+            }
+            return parseTerm();
+        }
+
+        private Term parseTerm() throws ParseException {
+            skipSpace();
+            int start = pos;
+            if (pos < text.length() && text.charAt(pos) == '#') pos++;
+            while (pos < text.length() && isWordChar(text.charAt(pos))) pos++;
+            String field = text.substring(start, pos);
+            if (field.isEmpty() || field.equals("#")) throw error("Field name expected");
+
+            int level = 0;
+            if (symbol("[")) {
+                skipSpace();
+                int digits = pos;
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) pos++;
+                if (digits == pos) throw error("Level expected");
+                level = Integer.parseInt(text, digits, pos, 10);
+                if (level < 1) throw error("Levels start at 1");
+                if (!symbol("]")) throw error("Missing ']'");
+            }
+
+            Op op;
+            if (symbol("==") || symbol("=")) op = Op.EQ;
+            else if (symbol("!=") || symbol("<>")) op = Op.NE;
+            else if (symbol("<=")) op = Op.LE;
+            else if (symbol(">=")) op = Op.GE;
+            else if (symbol("<")) op = Op.LT;
+            else if (symbol(">")) op = Op.GT;
+            else if (symbol("~")) op = Op.CONTAINS;
+            else throw error("Operator expected after " + field);
+
+            return new Term(field, level, op, parseValue());
+        }
+
+        private String parseValue() throws ParseException {
+            skipSpace();
+            if (pos < text.length() && (text.charAt(pos) == '"' || text.charAt(pos) == '\'')) {
+                char quote = text.charAt(pos++);
+                int end = text.indexOf(quote, pos);
+                if (end < 0) throw error("Unterminated string");
+                String value = text.substring(pos, end);
+                pos = end + 1;
+                return value;
+            }
+            int start = pos;
+            while (pos < text.length() && (isWordChar(text.charAt(pos)) || text.charAt(pos) == '#'
+                    || text.charAt(pos) == '+')) {
+                pos++;
+            }
+            if (start == pos) throw error("Value expected");
+            return text.substring(start, pos);
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-';
+        }
+
+        private boolean keyword(String word) {
+            skipSpace();
+            if (!peekKeyword(word)) return false;
+            pos += word.length();
+            return true;
+        }
+
+        private boolean peekKeyword(String word) {
+            int end = pos + word.length();
+            return text.regionMatches(true, pos, word, 0, word.length())
+                && (end == text.length() || !isWordChar(text.charAt(end)));
+        }
+
+        private boolean peek(String symbol) {
+            skipSpace();
+            return text.startsWith(symbol, pos);
+        }
+
+        private boolean symbol(String symbol) {
+            if (!peek(symbol)) return false;
+            pos += symbol.length();
+            return true;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private ParseException error(String message) {
+            return new ParseException(message + " at position " + (pos + 1), pos);
+        }
+    }
+}
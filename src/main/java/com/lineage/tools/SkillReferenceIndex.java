@@ -0,0 +1,158 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Which items (<skills><skill id=.../>) and class skill trees (skillId=...) use
+// each skill id of a datapack. Nothing in the model points back from a skill,
+// so this is a reverse index over the item and skill tree managers, hashed by
+// skill id (IntIndex).
+//
+// It is rebuilt on the next lookup whenever the item or tree list was
+// replaced, resized or edited (edit versions), which is a single pass over the
+// references. Bulk questions are hash joins against it: unreferenced() probes
+// it once per skill, missing() probes the skill manager's id index once per
+// referenced id.
+public class SkillReferenceIndex {
+
+    public record ItemReference(Item item, int level) {}
+    public record TreeReference(SkillTreeClass tree, SkillTreeEntry entry) {}
+
+    private static final class References {
+        final int skillId;
+        final List<ItemReference> items = new ArrayList<>(1);
+        final List<TreeReference> trees = new ArrayList<>(2);
+
+        References(int skillId) {
+            this.skillId = skillId;
+        }
+    }
+
+    private final ItemManager itemManager;
+    private final SkillTreeManager treeManager;
+    private final IntIndex<References> bySkill = new IntIndex<>(r -> r.skillId);
+    private int[] referencedIds = new int[0];
+
+    // What the index was built from
+    private List<Item> items;
+    private int itemCount = -1;
+    private long itemVersion;
+    private List<SkillTreeClass> trees;
+    private int treeCount = -1;
+    private long treeVersion;
+
+    public SkillReferenceIndex(ItemManager itemManager, SkillTreeManager treeManager) {
+        this.itemManager = itemManager;
+        this.treeManager = treeManager;
+    }
+
+    public synchronized List<ItemReference> getItems(int skillId) {
+        References refs = sync().get(skillId);
+        return refs != null ? Collections.unmodifiableList(refs.items) : List.of();
+    }
+
+    public synchronized List<TreeReference> getTrees(int skillId) {
+        References refs = sync().get(skillId);
+        return refs != null ? Collections.unmodifiableList(refs.trees) : List.of();
+    }
+
+    public synchronized boolean isReferenced(int skillId) {
+        return sync().get(skillId) != null;
+    }
+
+    // Skills no item or skill tree refers to, in list order
+    public synchronized List<Skill> unreferenced(List<Skill> skills) {
+        IntIndex<References> index = sync();
+        List<Skill> result = new ArrayList<>();
+        for (Skill skill : skills) {
+            if (index.get(skill.getSkillId()) == null) result.add(skill);
+        }
+        return result;
+    }
+
+    // Ids that items or skill trees refer to but no skill has, ascending
+    public synchronized int[] missing(SkillManager skills) {
+        sync();
+        int[] result = new int[referencedIds.length];
+        int n = 0;
+        for (int id : referencedIds) {
+            if (skills.findSkillById(id) == null) result[n++] = id;
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private IntIndex<References> sync() {
+        List<Item> currentItems = itemManager.getItems();
+        List<SkillTreeClass> currentTrees = treeManager.getClassTrees();
+        long currentItemVersion = itemManager.getEditVersion();
+        long currentTreeVersion = treeManager.getEditVersion();
+        if (currentItems == items && currentItems.size() == itemCount && currentItemVersion == itemVersion
+                && currentTrees == trees && currentTrees.size() == treeCount && currentTreeVersion == treeVersion) {
+            return bySkill;
+        }
+
+        bySkill.clear();
+        int[] ids = new int[64];
+        int idCount = 0;
+        for (Item item : currentItems) {
+            if (item.getSkills() == null || item.getSkills().getSkills() == null) continue;
+            for (ItemSkill skill : item.getSkills().getSkills()) {
+                References refs = bySkill.get(skill.getId());
+                if (refs == null) {
+                    refs = new References(skill.getId());
+                    bySkill.put(skill.getId(), refs);
+                    if (idCount == ids.length) ids = Arrays.copyOf(ids, idCount * 2);
+                    ids[idCount++] = skill.getId();
+                }
+                refs.items.add(new ItemReference(item, skill.getLevel()));
+            }
+        }
+        for (SkillTreeClass tree : currentTrees) {
+            if (tree.getSkills() == null) continue;
+            for (SkillTreeEntry entry : tree.getSkills()) {
+                References refs = bySkill.get(entry.getSkillId());
+                if (refs == null) {
+                    refs = new References(entry.getSkillId());
+                    bySkill.put(entry.getSkillId(), refs);
+                    if (idCount == ids.length) ids = Arrays.copyOf(ids, idCount * 2);
+                    ids[idCount++] = entry.getSkillId();
+                }
+                refs.trees.add(new TreeReference(tree, entry));
+            }
+        }
+        referencedIds = Arrays.copyOf(ids, idCount);
+        Arrays.sort(referencedIds);
+
+        items = currentItems;
+        itemCount = currentItems.size();
+        itemVersion = currentItemVersion;
+        trees = currentTrees;
+        treeCount = currentTrees.size();
+        treeVersion = currentTreeVersion;
+        return bySkill;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Finds the byte ranges of every top-level <skill> and of its <conditions> and
+// <effects> children, for lazy loading and spliced saves. Works on the raw bytes of any
+// ASCII-compatible encoding; comments, CDATA, processing instructions, the
+// DOCTYPE and quoted attribute values are skipped so markup inside them is
+// never mistaken for an element.
+class SkillSliceScanner {
+
+    static final int CONDITIONS_START = 0;
+    static final int CONDITIONS_END = 1;
+    static final int EFFECTS_START = 2;
+    static final int EFFECTS_END = 3;
+    static final int SKILL_START = 4;
+    static final int SKILL_END = 5;
+
+    private byte[] xml;
+    private int limit;        // xml[0, limit) holds data
+    private int pos;
+
+    private int depth;
+    private int[] current;    // ranges of the <skill> being scanned
+    private int captureStart = -1;    // start of the open <conditions>/<effects>
+    private int captureSlot = -1;
+
+    private SkillSliceScanner(byte[] xml, int limit) {
+        this.xml = xml;
+        this.limit = limit;
+    }
+
+    // One entry per <skill> child of the root, in document order. Each holds
+    // [start, end) offsets of the skill element and of its subtrees (-1 when
+    // the skill has none).
+    static List<int[]> scan(byte[] xml) {
+        SkillSliceScanner scanner = new SkillSliceScanner(xml, xml.length);
+        List<int[]> skills = new ArrayList<>();
+        int[] range;
+        while ((range = scanner.next()) != null) {
+            skills.add(range);
+        }
+        return skills;
+    }
+
+    // A scanner fed with append() while the document is being read, for a
+    // single pass over a stream. Offsets are relative to buffer() and only
+    // valid until the next append().
+    static SkillSliceScanner incremental() {
+        return new SkillSliceScanner(new byte[1 << 16], 0);
+    }
+
+    byte[] buffer() { return xml; }
+
+    // Adds the next bytes of the document. Whatever the scanner has moved
+    // past is dropped first, so the buffer only holds the unscanned part.
+    void append(byte[] bytes, int off, int len) {
+        if (limit + len > xml.length) {
+            System.arraycopy(xml, pos, xml, 0, limit - pos);
+            if (captureStart >= 0) captureStart -= pos;
+            limit -= pos;
+            pos = 0;
+            if (limit + len > xml.length) {
+                xml = Arrays.copyOf(xml, Math.max(xml.length * 2, limit + len));
+            }
+        }
+        System.arraycopy(bytes, off, xml, limit, len);
+        limit += len;
+    }
+
+    // Ranges of the next <skill>, null when there is none in the data so far.
+    // A skill cut off by the end of the data comes back with SKILL_END -1.
+    int[] next() {
+        while ((pos = indexOf((byte) '<', pos)) >= 0) {
+            int tagStart = pos;
+            if (startsWith("<!--")) {
+                pos = end("-->");
+            } else if (startsWith("<![CDATA[")) {
+                pos = end("]]>");
+            } else if (startsWith("<?")) {
+                pos = end("?>");
+            } else if (startsWith("<!")) {
+                skipDeclaration();
+            } else if (startsWith("</")) {
+                pos = skipTag();
+                depth--;
+                if (depth == 1 && current != null) {
+                    current[SKILL_END] = pos;
+                    return done();
+                } else if (depth == 2 && captureSlot >= 0) {
+                    current[captureSlot] = captureStart;
+                    current[captureSlot + 1] = pos;
+                    captureSlot = -1;
+                    captureStart = -1;
+                }
+            } else {
+                String name = readName(tagStart + 1);
+                pos = skipTag();
+                boolean empty = xml[pos - 2] == '/';
+                if (depth == 1 && "skill".equals(name)) {
+                    current = new int[6];
+                    Arrays.fill(current, -1);
+                    current[SKILL_START] = tagStart;
+                    if (empty) {
+                        current[SKILL_END] = pos;
+                        return done();
+                    }
+                } else if (depth == 1) {
+                    current = null;
+                } else if (depth == 2 && current != null) {
+                    int slot = "conditions".equals(name) ? CONDITIONS_START
+                             : "effects".equals(name) ? EFFECTS_START : -1;
+                    if (slot >= 0 && empty) {
+                        current[slot] = tagStart;
+                        current[slot + 1] = pos;
+                    } else if (slot >= 0) {
+                        captureStart = tagStart;
+                        captureSlot = slot;
+                    }
+                }
+                if (!empty) depth++;
+            }
+        }
+        pos = limit;
+        return done();
+    }
+
+    private int[] done() {
+        int[] range = current;
+        current = null;
+        return range;
+    }
+
+    private String readName(int from) {
+        int end = from;
+        while (end < limit) {
+            byte b = xml[end];
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '/' || b == '>') break;
+            end++;
+        }
+        return new String(xml, from, end - from, StandardCharsets.ISO_8859_1);
+    }
+
+    // Returns the offset just after the closing '>' of the tag at pos
+    private int skipTag() {
+        byte quote = 0;
+        for (int i = pos + 1; i < limit; i++) {
+            byte b = xml[i];
+            if (quote != 0) {
+                if (b == quote) quote = 0;
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    // <!DOCTYPE ...> with an optional [internal subset]
+    private void skipDeclaration() {
+        int brackets = 0;
+        for (int i = pos + 2; i < limit; i++) {
+            byte b = xml[i];
+            if (b == '[') brackets++;
+            else if (b == ']') brackets--;
+            else if (b == '>' && brackets == 0) {
+                pos = i + 1;
+                return;
+            }
+        }
+        pos = limit;
+    }
+
+    private boolean startsWith(String token) {
+        if (pos + token.length() > limit) return false;
+        for (int i = 0; i < token.length(); i++) {
+            if (xml[pos + i] != token.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private int end(String token) {
+        for (int i = pos + 1; i + token.length() <= limit; i++) {
+            int j = 0;
+            while (j < token.length() && xml[i + j] == token.charAt(j)) j++;
+            if (j == token.length()) return i + token.length();
+        }
+        return limit;
+    }
+
+    private int indexOf(byte b, int from) {
+        for (int i = from; i < limit; i++) {
+            if (xml[i] == b) return i;
+        }
+        return -1;
+    }
+}
@@ -24,9 +24,9 @@ package com.lineage.tools;
 
 import com.formdev.flatlaf.themes.FlatMacDarkLaf;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
@@ -37,12 +37,18 @@ public class SkillTreeEditorGUI extends JFrame {
     private static final long serialVersionUID = 1L;
     
     private SkillTreeManager treeManager;
+    private final ChangeBus.Listener treesListener = this::treesChanged;
     private JComboBox<String> classSelector;
     private JTable skillTable;
-    private DefaultTableModel tableModel;
+    private ListTableModel<SkillTreeEntry> tableModel;
     private SkillTreeClass currentClass;
     private SkillTreeEntry currentSkill;
     private ResourceBundle messages;
+    private JLabel statusLabel;
+    
+    // Background loading
+    private LoadWorker<SkillTreeClass> loadWorker;
+    private LoadProgressPanel loadProgress;
     
     // Componentes do editor
     private JTextField txtSkillId, txtSkillName, txtSkillLevel;
@@ -55,6 +61,11 @@ public class SkillTreeEditorGUI extends JFrame {
     }
     
     public SkillTreeEditorGUI(Locale locale) {
+        this(locale, new SkillTreeManager());
+    }
+    
+    // Opens on skill trees that are already loaded (see Workspace)
+    public SkillTreeEditorGUI(Locale locale, SkillTreeManager treeManager) {
         messages = ResourceBundle.getBundle("Messages", locale);
         
         try {
@@ -63,8 +74,12 @@ public class SkillTreeEditorGUI extends JFrame {
             ex.printStackTrace();
         }
         
-        treeManager = new SkillTreeManager();
+        this.treeManager = treeManager;
+        treeManager.getChanges().addListener(treesListener);
         initComponents();
+        if (!treeManager.getClassTrees().isEmpty()) {
+            updateClassSelector();
+        }
     }
     
     private String getMsg(String key) {
@@ -129,14 +144,21 @@ public class SkillTreeEditorGUI extends JFrame {
             getMsg("tree.table.sp"),
             getMsg("tree.table.npc")
         };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        
+        tableModel = new ListTableModel<>(columns,
+            SkillTreeEntry::getSkillName,
+            SkillTreeEntry::getSkillId,
+            SkillTreeEntry::getSkillLevel,
+            SkillTreeEntry::getGetLevel,
+            SkillTreeEntry::getLevelUpSp,
+            skill -> skill.isLearnedByNpc() ? getMsg("tree.yes") : getMsg("tree.no"));
+        
+        ListRowSorter<SkillTreeEntry> sorter = new ListRowSorter<>(tableModel);
+        sorter.setIntColumn(1, SkillTreeEntry::getSkillId);
+        sorter.setIntColumn(2, SkillTreeEntry::getSkillLevel);
+        sorter.setIntColumn(3, SkillTreeEntry::getGetLevel);
+        sorter.setIntColumn(4, SkillTreeEntry::getLevelUpSp);
         skillTable = new JTable(tableModel);
+        skillTable.setRowSorter(sorter);
         skillTable.setRowHeight(25);
         skillTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -252,31 +274,89 @@ public class SkillTreeEditorGUI extends JFrame {
         // Status bar
         JPanel statusBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
         statusBar.setBorder(BorderFactory.createEtchedBorder());
-        statusBar.add(new JLabel(getMsg("tree.status.ready")));
+        statusLabel = new JLabel(getMsg("tree.status.ready"));
+        statusBar.add(statusLabel);
+        loadProgress = new LoadProgressPanel(getMsg("button.cancel"));
+        statusBar.add(loadProgress);
         add(statusBar, BorderLayout.SOUTH);
     }
     
     private void loadXml() {
+        if (loadWorker != null) return;
+        
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("XML files", "xml"));
         
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try {
-                File file = fileChooser.getSelectedFile();
-                treeManager.loadFromFile(file);
-                updateClassSelector();
-                JOptionPane.showMessageDialog(this, 
-                    getMsg("tree.success.loaded") + " " + treeManager.getClassTrees().size());
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, 
-                    getMsg("tree.error.load") + " " + ex.getMessage(), 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-                ex.printStackTrace();
-            }
+            startLoad(fileChooser.getSelectedFile());
         }
     }
     
+    // Parses off the EDT. Classes show up in the selector as they are read; if the
+    // load fails or is cancelled the previous trees come back.
+    private void startLoad(File file) {
+        List<SkillTreeClass> previous = treeManager.getClassTrees();
+        treeManager.setClassTrees(new ArrayList<>());
+        classSelector.removeAllItems();
+        tableModel.setRows(List.of());
+        
+        loadWorker = new LoadWorker<>(file.length(), (sink, monitor) -> treeManager.readFile(file, sink, monitor),
+            new LoadWorker.Listener<SkillTreeClass>() {
+                @Override
+                public void loaded(List<SkillTreeClass> batch) {
+                    for (SkillTreeClass treeClass : batch) {
+                        // The first class added gets selected and shown
+                        treeManager.getClassTrees().add(treeClass);
+                        classSelector.addItem(classLabel(treeClass));
+                    }
+                }
+                
+                @Override
+                public void finished(LoadResult<SkillTreeClass> result) {
+                    loadWorker = null;
+                    treeManager.applyLoad(result);
+                    statusLabel.setText(getMsg("tree.success.loaded") + " " + treeManager.getClassTrees().size());
+                    JOptionPane.showMessageDialog(SkillTreeEditorGUI.this, 
+                        getMsg("tree.success.loaded") + " " + treeManager.getClassTrees().size());
+                    int recovered = treeManager.getRecoveredEdits();
+                    if (recovered > 0) {
+                        updateClassSelector();
+                        statusLabel.setText(getMsg("status.recovered") + " " + recovered);
+                        JOptionPane.showMessageDialog(SkillTreeEditorGUI.this, getMsg("status.recovered") + " " + recovered);
+                    }
+                }
+                
+                @Override
+                public void failed(Exception ex) {
+                    restore();
+                    statusLabel.setText(getMsg("tree.status.ready"));
+                    JOptionPane.showMessageDialog(SkillTreeEditorGUI.this, 
+                        getMsg("tree.error.load") + " " + ex.getMessage(), 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    ex.printStackTrace();
+                }
+                
+                @Override
+                public void cancelled() {
+                    restore();
+                    statusLabel.setText(getMsg("status.loadCancelled"));
+                }
+                
+                private void restore() {
+                    loadWorker = null;
+                    treeManager.setClassTrees(previous);
+                    updateClassSelector();
+                }
+            });
+        loadProgress.track(loadWorker);
+        statusLabel.setText(getMsg("status.loading") + " " + file.getName());
+        loadWorker.execute();
+    }
+    
     private void saveXml() {
+        // Never write out a half-loaded file
+        if (loadWorker != null) return;
+        
         if (treeManager.getClassTrees().isEmpty()) {
             JOptionPane.showMessageDialog(this, getMsg("tree.error.noData"));
             return;
@@ -299,11 +379,26 @@ public class SkillTreeEditorGUI extends JFrame {
         }
     }
     
+    // Edits from this window or any other one showing the same trees, once per
+    // event-queue turn
+    private void treesChanged(ModelChange change) {
+        // A running load fills the selector itself
+        if (loadWorker != null) return;
+        if (change.isReset()) {
+            if (currentClass == null || treeManager.getClassTree(currentClass.getClassId()) != currentClass
+                    || classSelector.getItemCount() != treeManager.getClassTrees().size()) {
+                updateClassSelector();
+            }
+        } else if (currentClass != null && change.getUpdated().contains(currentClass.getClassId())
+                && tableModel.getRows() == currentClass.getSkills()) {
+            tableModel.rowsChanged();
+        }
+    }
+    
     private void updateClassSelector() {
         classSelector.removeAllItems();
         for (SkillTreeClass treeClass : treeManager.getClassTrees()) {
-            classSelector.addItem(getMsg("tree.class") + " " + treeClass.getClassId() + 
-                " (" + treeClass.getType() + ")");
+            classSelector.addItem(classLabel(treeClass));
         }
         if (classSelector.getItemCount() > 0) {
             classSelector.setSelectedIndex(0);
@@ -311,6 +406,10 @@ public class SkillTreeEditorGUI extends JFrame {
         }
     }
     
+    private String classLabel(SkillTreeClass treeClass) {
+        return getMsg("tree.class") + " " + treeClass.getClassId() + " (" + treeClass.getType() + ")";
+    }
+    
     private void loadSelectedClass() {
         int index = classSelector.getSelectedIndex();
         if (index < 0 || index >= treeManager.getClassTrees().size()) return;
@@ -324,17 +423,7 @@ public class SkillTreeEditorGUI extends JFrame {
     }
     
     private void refreshSkillTable(List<SkillTreeEntry> skills) {
-        tableModel.setRowCount(0);
-        for (SkillTreeEntry skill : skills) {
-            tableModel.addRow(new Object[]{
-                skill.getSkillName(),
-                skill.getSkillId(),
-                skill.getSkillLevel(),
-                skill.getGetLevel(),
-                skill.getLevelUpSp(),
-                skill.isLearnedByNpc() ? getMsg("tree.yes") : getMsg("tree.no")
-            });
-        }
+        tableModel.setRows(skills);
     }
     
     private void loadSelectedSkill() {
@@ -342,7 +431,9 @@ public class SkillTreeEditorGUI extends JFrame {
         if (selectedRow < 0 || currentClass == null) return;
         
         int index = skillTable.convertRowIndexToModel(selectedRow);
-        currentSkill = currentClass.getSkills().get(index);
+        SkillTreeEntry selected = tableModel.getRow(index);
+        if (selected == null) return;
+        currentSkill = selected;
         
         txtSkillId.setText(String.valueOf(currentSkill.getSkillId()));
         txtSkillName.setText(currentSkill.getSkillName());
@@ -365,8 +456,8 @@ public class SkillTreeEditorGUI extends JFrame {
             currentSkill.setGetLevel(Integer.parseInt(txtGetLevel.getText()));
             currentSkill.setLevelUpSp(Integer.parseInt(txtLevelUpSp.getText()));
             currentSkill.setLearnedByNpc(chkLearnedByNpc.isSelected());
+            treeManager.updateClassTree(currentClass);
             
-            refreshSkillTable(currentClass.getSkills());
             JOptionPane.showMessageDialog(this, getMsg("tree.success.updated"));
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, getMsg("tree.error.invalidNumber"));
@@ -385,12 +476,16 @@ public class SkillTreeEditorGUI extends JFrame {
         newSkill.setLearnedByNpc(true);
         
         currentClass.addSkill(newSkill);
-        refreshSkillTable(currentClass.getSkills());
-        
-        int lastRow = tableModel.getRowCount() - 1;
-        if (lastRow >= 0) {
-            skillTable.setRowSelectionInterval(lastRow, lastRow);
-        }
+        treeManager.updateClassTree(currentClass);
+        
+        // Once the change has reached the table
+        SwingUtilities.invokeLater(() -> {
+            int lastRow = tableModel.getRowCount() - 1;
+            if (lastRow >= 0 && tableModel.getRow(lastRow) == newSkill) {
+                int viewRow = skillTable.convertRowIndexToView(lastRow);
+                skillTable.setRowSelectionInterval(viewRow, viewRow);
+            }
+        });
     }
     
     private void cloneSkill() {
@@ -405,7 +500,7 @@ public class SkillTreeEditorGUI extends JFrame {
         clone.setLearnedByNpc(currentSkill.isLearnedByNpc());
         
         currentClass.addSkill(clone);
-        refreshSkillTable(currentClass.getSkills());
+        treeManager.updateClassTree(currentClass);
     }
     
     private void deleteSkill() {
@@ -418,11 +513,17 @@ public class SkillTreeEditorGUI extends JFrame {
             
         if (confirm == JOptionPane.YES_OPTION) {
             currentClass.removeSkill(currentSkill);
-            refreshSkillTable(currentClass.getSkills());
+            treeManager.updateClassTree(currentClass);
             clearEditor();
         }
     }
     
+    @Override
+    public void dispose() {
+        treeManager.getChanges().removeListener(treesListener);
+        super.dispose();
+    }
+    
     private void clearEditor() {
         txtSkillId.setText("");
         txtSkillName.setText("");
@@ -25,10 +25,18 @@ package com.lineage.tools;
 import javax.xml.bind.annotation.*;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Unmarshaller;
-import javax.xml.bind.Marshaller;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @XmlRootElement(name = "list")
@@ -38,31 +46,178 @@ public class SkillTreeManager {
     @XmlElement(name = "skillTree")
     private List<SkillTreeClass> classTrees = new ArrayList<>();
     
+    @XmlTransient
+    private final IntIndex<SkillTreeClass> byClassId = new IntIndex<>(SkillTreeClass::getClassId);
+    
+    // Snapshot key of every file as last read or written, for the journal
+    @XmlTransient
+    private final Map<File, SnapshotCache.Key> fileKeys = new ConcurrentHashMap<>();
+    
+    // Edits not saved yet, replayed after the next load of the same source
+    @XmlTransient
+    private EditJournal journal;
+    @XmlTransient
+    private int recoveredEdits;
+    
+    // Bumped by every edit, for SkillReferenceIndex
+    @XmlTransient
+    private final AtomicLong editVersion = new AtomicLong();
+    
+    // Class ids whose trees were edited, for the editor windows
+    @XmlTransient
+    private final ChangeBus changes = new ChangeBus();
+    
     public SkillTreeManager() {}
     
     public List<SkillTreeClass> getClassTrees() { return classTrees; }
-    public void setClassTrees(List<SkillTreeClass> classTrees) { this.classTrees = classTrees; }
+    public void setClassTrees(List<SkillTreeClass> classTrees) {
+        this.classTrees = classTrees;
+        changes.reset();
+    }
+    
+    public ChangeBus getChanges() { return changes; }
     
     public SkillTreeClass getClassTree(int classId) {
-        return classTrees.stream()
-                .filter(ct -> ct.getClassId() == classId)
-                .findFirst()
-                .orElse(null);
+        return byClassId.get(classTrees, classId);
     }
     
+    // Must be called after the skills of a class tree have been changed
+    public void updateClassTree(SkillTreeClass tree) {
+        editVersion.incrementAndGet();
+        changes.updated(tree.getClassId());
+        if (journal != null) journal.putSkillTree(tree);
+    }
+    
+    public void removeClassTree(SkillTreeClass tree) {
+        int row = classTrees.indexOf(tree);
+        if (row < 0) return;
+        classTrees.remove(row);
+        byClassId.removed(classTrees, tree);
+        editVersion.incrementAndGet();
+        changes.removed(tree.getClassId(), row);
+        if (journal != null) journal.removeSkillTree(tree.getClassId());
+    }
+    
+    public long getEditVersion() { return editVersion.get(); }
+    
     public void loadFromFile(File file) throws Exception {
-        JAXBContext context = JAXBContext.newInstance(SkillTreeManager.class);
+        applyLoad(readFile(file, null, LoadMonitor.NONE));
+    }
+    
+    // Background half of a load (see LoadWorker): reads into a LoadResult without
+    // touching the manager, handing every class tree to sink as soon as it has been read
+    public LoadResult<SkillTreeClass> readFile(File file, Consumer<SkillTreeClass> sink, LoadMonitor monitor) throws Exception {
+        return readFile(file, sink, monitor, new StringPool());
+    }
+    
+    // strings is shared by the parts of a datapack (see Workspace.read)
+    public LoadResult<SkillTreeClass> readFile(File file, Consumer<SkillTreeClass> sink, LoadMonitor monitor, StringPool strings) throws Exception {
+        Map<File, SnapshotCache.Key> keys = new HashMap<>();
+        List<SkillTreeClass> loaded = readTreeFile(file, sink, monitor, keys, strings);
+        return new LoadResult<>(loaded, keys, file, false, strings);
+    }
+    
+    // Split datapack (skillTrees/*.xml), files parsed in parallel
+    public LoadResult<SkillTreeClass> readDirectory(File dir, Consumer<SkillTreeClass> sink, LoadMonitor monitor) throws Exception {
+        return readDirectory(dir, sink, monitor, new StringPool());
+    }
+    
+    public LoadResult<SkillTreeClass> readDirectory(File dir, Consumer<SkillTreeClass> sink, LoadMonitor monitor, StringPool strings) throws Exception {
+        List<File> files = DatapackLoader.listXmlFiles(dir);
+        Map<File, SnapshotCache.Key> keys = new ConcurrentHashMap<>();
+        List<List<SkillTreeClass>> perFile = DatapackLoader.parseAll(files, f -> readTreeFile(f, null, monitor, keys, strings),
+            sink == null ? null : part -> part.forEach(sink));
+        
+        List<SkillTreeClass> merged = new ArrayList<>();
+        for (List<SkillTreeClass> part : perFile) {
+            merged.addAll(part);
+        }
+        return new LoadResult<>(merged, keys, dir, true, strings);
+    }
+    
+    private List<SkillTreeClass> readTreeFile(File file, Consumer<SkillTreeClass> sink, LoadMonitor monitor,
+                                              Map<File, SnapshotCache.Key> keys, StringPool strings) throws Exception {
+        File source = DatapackLoader.normalize(file);
+        keys.put(source, SnapshotCache.key(source));
+        JAXBContext context = Workspace.jaxbContext(SkillTreeManager.class);
         Unmarshaller unmarshaller = context.createUnmarshaller();
-        SkillTreeManager loaded = (SkillTreeManager) unmarshaller.unmarshal(file);
-        this.classTrees = loaded.getClassTrees();
+        List<SkillTreeClass> loaded = new ArrayList<>();
+        try (InputStream in = monitor.monitor(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            JaxbListReader.read(in, unmarshaller, "skillTree", SkillTreeClass.class, tree -> {
+                strings.dedupe(tree);
+                loaded.add(tree);
+                if (sink != null) sink.accept(tree);
+            });
+        }
+        return loaded;
+    }
+    
+    // EDT half of a load
+    public void applyLoad(LoadResult<SkillTreeClass> result) {
+        this.classTrees = result.getEntries();
+        changes.reset();
+        fileKeys.clear();
+        fileKeys.putAll(result.getFileKeys());
+        openJournal(result.getSource(), result.getStrings());
+    }
+    
+    // Number of unsaved edits the last load found in the journal and re-applied
+    public int getRecoveredEdits() { return recoveredEdits; }
+    
+    private void openJournal(File source, StringPool strings) {
+        closeJournal();
+        recoveredEdits = 0;
+        if (source == null) return;
+        try {
+            journal = EditJournal.open(source, fileKeys);
+        } catch (IOException e) {
+            System.err.println("Could not open edit journal for " + source + ": " + e.getMessage());
+            return;
+        }
+        for (EditJournal.Entry entry : journal.getRecovered()) {
+            if (entry.kind() == EditJournal.SKILL_TREE_PUT) {
+                SkillTreeClass tree = (SkillTreeClass) entry.value();
+                strings.dedupe(tree);
+                SkillTreeClass old = getClassTree(tree.getClassId());
+                if (old != null) {
+                    classTrees.set(classTrees.indexOf(old), tree);
+                    byClassId.replaced(classTrees, old, tree);
+                } else {
+                    classTrees.add(tree);
+                    byClassId.added(classTrees, tree);
+                }
+                recoveredEdits++;
+            } else if (entry.kind() == EditJournal.SKILL_TREE_REMOVE) {
+                SkillTreeClass old = getClassTree(entry.id());
+                if (old != null) {
+                    classTrees.remove(old);
+                    byClassId.removed(classTrees, old);
+                }
+                recoveredEdits++;
+            }
+        }
+        if (recoveredEdits > 0) {
+            editVersion.incrementAndGet();
+            System.out.println("Recovered " + recoveredEdits + " unsaved edits from " + journal.getFile());
+        }
+    }
+    
+    public void closeJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Could not close edit journal: " + e.getMessage());
+        }
+        journal = null;
     }
     
     public void saveToFile(File file) throws Exception {
-        JAXBContext context = JAXBContext.newInstance(SkillTreeManager.class);
-        Marshaller marshaller = context.createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-        marshaller.marshal(this, file);
+        long mark = journal != null ? journal.mark() : 0;
+        ModelXmlWriter.writeSkillTrees(file, classTrees);
+        File source = DatapackLoader.normalize(file);
+        fileKeys.put(source, SnapshotCache.key(source));
+        if (journal != null) journal.discard(mark, fileKeys);
     }
 }
 
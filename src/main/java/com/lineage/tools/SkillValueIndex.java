@@ -0,0 +1,125 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-set value index for SkillQuery: for one <set> name, the positions in the
+// skill list of every value (numbers by value, text ignoring case). Built the
+// first time a query has an equality term on that set and dropped whenever the
+// list or a skill changes. Skills whose set points to a table (val="#power")
+// are always candidates, since the query compares the table's values.
+public class SkillValueIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private static final class Positions {
+        int[] at = new int[4];
+        int size;
+
+        void add(int position) {
+            if (size == at.length) at = Arrays.copyOf(at, size * 2);
+            at[size++] = position;
+        }
+    }
+
+    private static final class SetIndex {
+        final Map<String, Positions> byValue = new HashMap<>();
+        final Positions references = new Positions();
+    }
+
+    private final Map<String, SetIndex> sets = new HashMap<>();
+    private List<Skill> indexed;
+    private int indexedSize = -1;
+
+    // Positions in list of the skills that may have setName = value, ascending
+    public synchronized int[] positions(List<Skill> list, String setName, String value) {
+        if (indexed != list || indexedSize != list.size()) {
+            sets.clear();
+            indexed = list;
+            indexedSize = list.size();
+        }
+        SetIndex index = sets.computeIfAbsent(setName, name -> build(list, name));
+        Positions hits = index.byValue.get(key(value));
+        int[] a = hits != null ? hits.at : NONE;
+        int aSize = hits != null ? hits.size : 0;
+        int[] b = index.references.at;
+        int bSize = index.references.size;
+
+        // Merge the two sorted position lists
+        int[] result = new int[aSize + bSize];
+        int i = 0, j = 0, n = 0;
+        while (i < aSize || j < bSize) {
+            result[n++] = j == bSize || (i < aSize && a[i] < b[j]) ? a[i++] : b[j++];
+        }
+        return result;
+    }
+
+    // Must be called after any skill was added, removed or edited
+    public synchronized void changed() {
+        sets.clear();
+    }
+
+    private static SetIndex build(List<Skill> list, String setName) {
+        SetIndex index = new SetIndex();
+        for (int i = 0; i < list.size(); i++) {
+            String value = list.get(i).getSetValue(setName);
+            if (value == null) continue;
+            if (value.startsWith("#")) {
+                index.references.add(i);
+            } else {
+                index.byValue.computeIfAbsent(key(value), k -> new Positions()).add(i);
+            }
+        }
+        return index;
+    }
+
+    // ========== VALUES ==========
+
+    static String key(String value) {
+        double number = number(value);
+        return Double.isNaN(number) ? value.toLowerCase() : format(number);
+    }
+
+    // The value as a number, NaN when it is not one
+    static double number(String value) {
+        if (value == null || value.isEmpty()) return Double.NaN;
+        char c = value.charAt(0);
+        if (!(c >= '0' && c <= '9') && c != '-' && c != '+' && c != '.') return Double.NaN;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    static String format(double number) {
+        if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+            return Long.toString((long) number);
+        }
+        return Double.toString(number);
+    }
+}
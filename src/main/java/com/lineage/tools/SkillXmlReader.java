@@ -0,0 +1,422 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Streaming (StAX) reader for skill files. Builds the same Skill graph as the
+// JAXB mapping, one <skill> at a time, without holding the document in memory.
+public class SkillXmlReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final boolean lazySubtrees;
+
+    public SkillXmlReader() {
+        this(false);
+    }
+
+    // lazySubtrees: keep <conditions> and <effects> as raw XML on the skill and
+    // parse them the first time they are used (see Skill.materialize)
+    public SkillXmlReader(boolean lazySubtrees) {
+        this.lazySubtrees = lazySubtrees;
+    }
+
+    public List<Skill> read(File file) throws IOException, XMLStreamException {
+        List<Skill> skills = new ArrayList<>();
+        read(file, LoadMonitor.NONE, skills::add);
+        return skills;
+    }
+
+    public void read(File file, LoadMonitor monitor, Consumer<Skill> sink) throws IOException, XMLStreamException {
+        try (InputStream in = monitor.monitor(new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE))) {
+            if (lazySubtrees) {
+                readLazy(in, sink);
+            } else {
+                read(in, sink);
+            }
+        }
+    }
+
+    public void read(InputStream in, Consumer<Skill> sink) throws XMLStreamException {
+        XMLStreamReader reader = createFactory().createXMLStreamReader(in);
+        try {
+            if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !"list".equals(reader.getLocalName())) {
+                throw new XMLStreamException("Unexpected root element <" + reader.getLocalName() + ">, expected <list>",
+                    reader.getLocation());
+            }
+            while (nextChild(reader)) {
+                if ("skill".equals(reader.getLocalName())) {
+                    sink.accept(readSkill(reader, false));
+                } else {
+                    skipElement(reader);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    // The subtrees are located on the raw bytes by SkillSliceScanner and skipped by
+    // the StAX pass; each skill keeps its own UTF-8 copy of them. The scanner sees
+    // the bytes as the parser reads them and follows it one skill behind, so the
+    // file is read once and only the part not parsed yet is buffered.
+    private void readLazy(InputStream in, Consumer<Skill> sink) throws IOException, XMLStreamException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        if (first == 0 || second == 0 || first >= 0xFE) {
+            // UTF-16/32: the byte scanner only handles ASCII-compatible encodings
+            read(in, sink);
+            return;
+        }
+        SkillSliceScanner slices = SkillSliceScanner.incremental();
+        XMLStreamReader reader = createFactory().createXMLStreamReader(new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) slices.append(new byte[] {(byte) b}, 0, 1);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) slices.append(b, off, n);
+                return n;
+            }
+        });
+        try {
+            Charset charset = reader.getEncoding() != null ? Charset.forName(reader.getEncoding()) : StandardCharsets.UTF_8;
+            if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !"list".equals(reader.getLocalName())) {
+                throw new XMLStreamException("Unexpected root element <" + reader.getLocalName() + ">, expected <list>",
+                    reader.getLocation());
+            }
+            while (nextChild(reader)) {
+                if (!"skill".equals(reader.getLocalName())) {
+                    skipElement(reader);
+                    continue;
+                }
+                Skill skill = readSkill(reader, true);
+                int[] range = slices.next();
+                if (range == null || range[SkillSliceScanner.SKILL_END] < 0) {
+                    throw new XMLStreamException("Skill slices out of sync with the parser", reader.getLocation());
+                }
+                byte[] xml = slices.buffer();
+                if (range[SkillSliceScanner.CONDITIONS_START] >= 0) {
+                    skill.setRawConditions(slice(xml, range[SkillSliceScanner.CONDITIONS_START],
+                        range[SkillSliceScanner.CONDITIONS_END], charset));
+                }
+                if (range[SkillSliceScanner.EFFECTS_START] >= 0) {
+                    skill.setRawEffects(slice(xml, range[SkillSliceScanner.EFFECTS_START],
+                        range[SkillSliceScanner.EFFECTS_END], charset));
+                }
+                sink.accept(skill);
+            }
+            if (slices.next() != null) {
+                throw new XMLStreamException("Skill slices out of sync with the parser", reader.getLocation());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static byte[] slice(byte[] xml, int start, int end, Charset charset) {
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return Arrays.copyOfRange(xml, start, end);
+        }
+        return new String(xml, start, end - start, charset).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Parses a subtree kept by a lazy load
+    static SkillConditions parseConditions(byte[] xml) throws XMLStreamException {
+        XMLStreamReader reader = createFactory().createXMLStreamReader(new ByteArrayInputStream(xml), "UTF-8");
+        try {
+            reader.nextTag();
+            return new SkillXmlReader().readConditions(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    static SkillEffects parseEffects(byte[] xml) throws XMLStreamException {
+        XMLStreamReader reader = createFactory().createXMLStreamReader(new ByteArrayInputStream(xml), "UTF-8");
+        try {
+            reader.nextTag();
+            return new SkillXmlReader().readEffects(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    // ========== ELEMENTS ==========
+
+    // skipSubtrees: leave <conditions>/<effects> to the caller (lazy load)
+    private Skill readSkill(XMLStreamReader reader, boolean skipSubtrees) throws XMLStreamException {
+        Skill skill = new Skill();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "id" -> skill.setSkillId(parseInt(value));
+                case "levels" -> skill.setLevels(parseInt(value));
+                case "name" -> skill.setName(value);
+                case "enchantGroup1" -> skill.setEnchantGroup1(value);
+                case "enchantGroup2" -> skill.setEnchantGroup2(value);
+                case "enchantGroup3" -> skill.setEnchantGroup3(value);
+                case "enchantGroup4" -> skill.setEnchantGroup4(value);
+                default -> { }
+            }
+        }
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "set" -> {
+                    SkillSet set = new SkillSet();
+                    set.setName(reader.getAttributeValue(null, "name"));
+                    set.setVal(reader.getAttributeValue(null, "val"));
+                    skill.getSets().add(set);
+                    skipElement(reader);
+                }
+                case "table" -> {
+                    SkillTable table = new SkillTable();
+                    table.setName(reader.getAttributeValue(null, "name"));
+                    table.setValues(readText(reader));
+                    skill.getTables().add(table);
+                }
+                case "conditions" -> {
+                    if (skipSubtrees) skipElement(reader);
+                    else skill.setConditions(readConditions(reader));
+                }
+                case "effects" -> {
+                    if (skipSubtrees) skipElement(reader);
+                    else skill.setEffects(readEffects(reader));
+                }
+                default -> skipElement(reader);
+            }
+        }
+        return skill;
+    }
+
+    SkillConditions readConditions(XMLStreamReader reader) throws XMLStreamException {
+        SkillConditions conditions = new SkillConditions();
+        conditions.setMsgId(reader.getAttributeValue(null, "msgId"));
+        conditions.setAddName(reader.getAttributeValue(null, "addName"));
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "using" -> conditions.setUsing(readUsing(reader));
+                case "and" -> conditions.setAnd(readAnd(reader));
+                case "target" -> conditions.setTarget(readTarget(reader));
+                case "player" -> conditions.setPlayer(readPlayer(reader));
+                default -> skipElement(reader);
+            }
+        }
+        return conditions;
+    }
+
+    private SkillAnd readAnd(XMLStreamReader reader) throws XMLStreamException {
+        SkillAnd and = new SkillAnd();
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "using" -> and.setUsing(readUsing(reader));
+                case "target" -> and.setTarget(readTarget(reader));
+                case "player" -> and.setPlayer(readPlayer(reader));
+                default -> skipElement(reader);
+            }
+        }
+        return and;
+    }
+
+    private SkillUsing readUsing(XMLStreamReader reader) throws XMLStreamException {
+        SkillUsing using = new SkillUsing();
+        using.setKind(reader.getAttributeValue(null, "kind"));
+        skipElement(reader);
+        return using;
+    }
+
+    private SkillTarget readTarget(XMLStreamReader reader) throws XMLStreamException {
+        SkillTarget target = new SkillTarget();
+        target.setRace(reader.getAttributeValue(null, "race"));
+        target.setMindistance(reader.getAttributeValue(null, "mindistance"));
+        target.setAbnormal(reader.getAttributeValue(null, "abnormal"));
+        skipElement(reader);
+        return target;
+    }
+
+    private SkillPlayer readPlayer(XMLStreamReader reader) throws XMLStreamException {
+        SkillPlayer player = new SkillPlayer();
+        player.setHp(reader.getAttributeValue(null, "hp"));
+        player.setCharges(reader.getAttributeValue(null, "Charges"));
+        player.setInvSize(reader.getAttributeValue(null, "invSize"));
+        player.setWeight(reader.getAttributeValue(null, "weight"));
+        skipElement(reader);
+        return player;
+    }
+
+    SkillEffects readEffects(XMLStreamReader reader) throws XMLStreamException {
+        SkillEffects effects = new SkillEffects();
+        while (nextChild(reader)) {
+            if ("effect".equals(reader.getLocalName())) {
+                effects.getEffects().add(readEffect(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return effects;
+    }
+
+    private SkillEffect readEffect(XMLStreamReader reader) throws XMLStreamException {
+        SkillEffect effect = new SkillEffect();
+        effect.setName(reader.getAttributeValue(null, "name"));
+
+        // JAXB leaves these lists null when the element never appears, keep that behaviour
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "param" -> {
+                    if (effect.getParams() == null) effect.setParams(new ArrayList<>());
+                    effect.getParams().add(readParam(reader));
+                }
+                case "mul" -> {
+                    if (effect.getMuls() == null) effect.setMuls(new ArrayList<>());
+                    effect.getMuls().add(readStat(reader));
+                }
+                case "add" -> {
+                    if (effect.getAdds() == null) effect.setAdds(new ArrayList<>());
+                    effect.getAdds().add(readStat(reader));
+                }
+                case "sub" -> {
+                    if (effect.getSubs() == null) effect.setSubs(new ArrayList<>());
+                    effect.getSubs().add(readStat(reader));
+                }
+                case "set" -> {
+                    if (effect.getSets() == null) effect.setSets(new ArrayList<>());
+                    effect.getSets().add(readStat(reader));
+                }
+                default -> skipElement(reader);
+            }
+        }
+        return effect;
+    }
+
+    private SkillParam readParam(XMLStreamReader reader) throws XMLStreamException {
+        SkillParam param = new SkillParam();
+        param.setStat(reader.getAttributeValue(null, "stat"));
+        param.setVal(reader.getAttributeValue(null, "val"));
+        param.setPower(reader.getAttributeValue(null, "power"));
+        param.setTime(reader.getAttributeValue(null, "time"));
+        param.setChance(reader.getAttributeValue(null, "chance"));
+        skipElement(reader);
+        return param;
+    }
+
+    private SkillStat readStat(XMLStreamReader reader) throws XMLStreamException {
+        SkillStat stat = new SkillStat();
+        stat.setStat(reader.getAttributeValue(null, "stat"));
+        stat.setVal(reader.getAttributeValue(null, "val"));
+        skipElement(reader);
+        return stat;
+    }
+
+    // ========== CURSOR HELPERS ==========
+
+    // Advances to the next child START_ELEMENT of the current element.
+    // Returns false once the END_ELEMENT of the current element is reached.
+    static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) return true;
+            if (event == XMLStreamConstants.END_ELEMENT) return false;
+        }
+        return false;
+    }
+
+    // Skips the rest of the current element, including all of its children.
+    static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) depth++;
+            else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+        }
+    }
+
+    // Text content of the current element (like @XmlValue), ignoring nested elements.
+    static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder sb = null;
+        String text = "";
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    if (depth != 1) break;
+                    if (text.isEmpty() && sb == null) {
+                        text = reader.getText();
+                    } else {
+                        if (sb == null) sb = new StringBuilder(text);
+                        sb.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                default -> { }
+            }
+        }
+        return sb != null ? sb.toString() : text;
+    }
+
+    static int parseInt(String value) {
+        if (value == null) return 0;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Binary snapshot written next to a source XML (".skills.xml.snapshot"), keyed by
+// the size, mtime and content hash of the XML it was built from. While the key
+// still matches, the model is rebuilt from the snapshot instead of parsing XML.
+// The cache is best effort: any problem reading or writing it is a cache miss.
+public class SnapshotCache {
+
+    private static final int MAGIC = 0x4C32534E; // "L2SN"
+    private static final int VERSION = 2;
+    private static final byte KIND_SKILLS = 1;
+    private static final byte KIND_ITEMS = 2;
+    private static final byte KIND_SKILLS_LAZY = 3;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public record Key(long size, long lastModified, long hash) {}
+
+    @FunctionalInterface
+    private interface EntryReader<T> {
+        T read(ModelCodec codec, DataInputStream in) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface EntryWriter<T> {
+        void write(ModelCodec codec, DataOutputStream out, T value) throws IOException;
+    }
+
+    private SnapshotCache() {}
+
+    public static File snapshotFile(File source) {
+        return new File(source.getAbsoluteFile().getParentFile(), "." + source.getName() + ".snapshot");
+    }
+
+    // Take the key before parsing, so a file changed during the parse never matches
+    public static Key key(File source) throws IOException {
+        long size = source.length();
+        long lastModified = source.lastModified();
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return new Key(size, lastModified, crc.getValue());
+    }
+
+    // Lazy and full loads keep separate snapshots, so switching the mode reparses once
+    public static List<Skill> loadSkills(File source, Key key, boolean lazy) {
+        return load(source, key, lazy ? KIND_SKILLS_LAZY : KIND_SKILLS, ModelCodec::readSkill);
+    }
+
+    public static void storeSkills(File source, Key key, List<Skill> skills, boolean lazy) {
+        store(source, key, lazy ? KIND_SKILLS_LAZY : KIND_SKILLS, skills, ModelCodec::writeSkill);
+    }
+
+    public static List<Item> loadItems(File source, Key key) {
+        return load(source, key, KIND_ITEMS, ModelCodec::readItem);
+    }
+
+    public static void storeItems(File source, Key key, List<Item> items) {
+        store(source, key, KIND_ITEMS, items, ModelCodec::writeItem);
+    }
+
+    private static <T> List<T> load(File source, Key key, byte kind, EntryReader<T> reader) {
+        File snapshot = snapshotFile(source);
+        if (!snapshot.isFile()) return null;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot.toPath()), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readByte() != kind) return null;
+            Key stored = new Key(in.readLong(), in.readLong(), in.readLong());
+            if (!stored.equals(key)) return null;
+
+            int count = in.readInt();
+            ModelCodec codec = new ModelCodec();
+            List<T> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(reader.read(codec, in));
+            }
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable snapshot " + snapshot + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static <T> void store(File source, Key key, byte kind, List<T> entries, EntryWriter<T> writer) {
+        Path target = snapshotFile(source).toPath();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeByte(kind);
+                out.writeLong(key.size());
+                out.writeLong(key.lastModified());
+                out.writeLong(key.hash());
+
+                out.writeInt(entries.size());
+                ModelCodec codec = new ModelCodec();
+                for (T entry : entries) {
+                    writer.write(codec, out, entry);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not write snapshot " + target + ": " + e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Canonical instances for the strings that repeat all over a datapack: set and
+// stat names ("power", "operateType", ...), short values ("#power", "1000",
+// "TARGET_ONE"), item types and the skill names of the skill trees. Every parser
+// creates its own copy of each of them; the managers run each loaded entry
+// through a pool so only one copy stays on the heap.
+//
+// A pool lives as long as one load (see LoadResult.getStrings): once the load
+// is applied nothing but the lazily parsed skills of it refers to the pool, so
+// it is collected together with the model it was built for.
+public class StringPool {
+
+    // Longer values (level tables, descriptions) are nearly always unique
+    private static final int MAX_VALUE_LENGTH = 32;
+
+    private final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public String intern(String value) {
+        if (value == null) return null;
+        String canonical = pool.putIfAbsent(value, value);
+        if (canonical == null) return value;
+        if (canonical != value) {
+            duplicates.increment();
+            bytesSaved.add(sizeOf(value));
+        }
+        return canonical;
+    }
+
+    // Values are only pooled while short; anything longer is returned as is
+    public String internValue(String value) {
+        return value == null || value.length() > MAX_VALUE_LENGTH ? value : intern(value);
+    }
+
+    public int size() { return pool.size(); }
+    public long getDuplicates() { return duplicates.sum(); }
+    public long getBytesSaved() { return bytesSaved.sum(); }
+
+    public String report() {
+        return String.format("String pool: %,d strings, %,d duplicates dropped (~%,d KB saved)",
+            size(), getDuplicates(), getBytesSaved() / 1024);
+    }
+
+    // Heap size of a String and its backing array (compact strings, 8-byte alignment)
+    private static long sizeOf(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long array = 16 + (long) value.length() * (latin1 ? 1 : 2);
+        return 24 + ((array + 7) & ~7);
+    }
+
+    // ========== MODEL ==========
+
+    public void dedupe(Skill skill) {
+        skill.setEnchantGroup1(internValue(skill.getEnchantGroup1()));
+        skill.setEnchantGroup2(internValue(skill.getEnchantGroup2()));
+        skill.setEnchantGroup3(internValue(skill.getEnchantGroup3()));
+        skill.setEnchantGroup4(internValue(skill.getEnchantGroup4()));
+        for (SkillSet set : skill.getSets()) {
+            set.setName(intern(set.getName()));
+            set.setVal(internValue(set.getVal()));
+        }
+        for (SkillTable table : skill.getTables()) {
+            table.setName(intern(table.getName()));
+            table.internValues(this);
+        }
+        // Raw subtrees of a lazy load are deduped when they are parsed
+        if (!skill.isMaterialized()) skill.keepStrings(this);
+        if (skill.getRawConditions() == null) dedupe(skill.getConditions());
+        if (skill.getRawEffects() == null) dedupe(skill.getEffects());
+    }
+
+    void dedupe(SkillConditions conditions) {
+        if (conditions == null) return;
+        conditions.setMsgId(internValue(conditions.getMsgId()));
+        conditions.setAddName(internValue(conditions.getAddName()));
+        dedupe(conditions.getUsing());
+        dedupe(conditions.getTarget());
+        dedupe(conditions.getPlayer());
+        SkillAnd and = conditions.getAnd();
+        if (and != null) {
+            dedupe(and.getUsing());
+            dedupe(and.getTarget());
+            dedupe(and.getPlayer());
+        }
+    }
+
+    private void dedupe(SkillUsing using) {
+        if (using != null) using.setKind(internValue(using.getKind()));
+    }
+
+    private void dedupe(SkillTarget target) {
+        if (target == null) return;
+        target.setRace(internValue(target.getRace()));
+        target.setMindistance(internValue(target.getMindistance()));
+        target.setAbnormal(internValue(target.getAbnormal()));
+    }
+
+    private void dedupe(SkillPlayer player) {
+        if (player == null) return;
+        player.setHp(internValue(player.getHp()));
+        player.setCharges(internValue(player.getCharges()));
+        player.setInvSize(internValue(player.getInvSize()));
+        player.setWeight(internValue(player.getWeight()));
+    }
+
+    void dedupe(SkillEffects effects) {
+        if (effects == null) return;
+        for (SkillEffect effect : effects.getEffects()) {
+            effect.setName(intern(effect.getName()));
+            if (effect.getParams() != null) {
+                for (SkillParam param : effect.getParams()) {
+                    param.setStat(intern(param.getStat()));
+                    param.setVal(internValue(param.getVal()));
+                    param.setPower(internValue(param.getPower()));
+                    param.setTime(internValue(param.getTime()));
+                    param.setChance(internValue(param.getChance()));
+                }
+            }
+            dedupeStats(effect.getMuls());
+            dedupeStats(effect.getAdds());
+            dedupeStats(effect.getSubs());
+            dedupeStats(effect.getSets());
+        }
+    }
+
+    private void dedupeStats(List<SkillStat> stats) {
+        if (stats == null) return;
+        for (SkillStat stat : stats) {
+            stat.setStat(intern(stat.getStat()));
+            stat.setVal(internValue(stat.getVal()));
+        }
+    }
+
+    public void dedupe(Item item) {
+        item.setType(intern(item.getType()));
+        for (ItemSet set : item.getSets()) {
+            set.setName(intern(set.getName()));
+            set.setVal(internValue(set.getVal()));
+        }
+        if (item.getStats() != null) {
+            for (ItemStat stat : item.getStats().getStats()) {
+                stat.setType(intern(stat.getType()));
+                stat.setValue(internValue(stat.getValue()));
+            }
+        }
+    }
+
+    public void dedupe(SkillTreeClass tree) {
+        tree.setType(intern(tree.getType()));
+        for (SkillTreeEntry entry : tree.getSkills()) {
+            // The same skill shows up in the tree of every class that can learn it
+            entry.setSkillName(intern(entry.getSkillName()));
+        }
+    }
+}
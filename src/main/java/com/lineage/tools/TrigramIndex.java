@@ -0,0 +1,270 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Substring search over a manager's list: an inverted index from every
+// trigram of an entry's (lowercased) search text to the sorted entries
+// containing it. A query intersects the posting lists of its own trigrams and
+// only checks the survivors, so typing in the search field does not walk the
+// whole list. Queries of one or two characters match most of the list anyway
+// and are answered by a plain scan.
+//
+// textOf joins the searchable fields with '\0', so a match never spans two
+// fields. Results keep list order: entries are numbered in list order and an
+// edited entry keeps its number. Follows one list the same way IntIndex does;
+// managers must report in-place edits with updated().
+public class TrigramIndex<T> {
+
+    private static final char SEPARATOR = '\0';
+    private static final int MIN_CAPACITY = 16;
+
+    private static final class Postings {
+        final int key;
+        int[] docs = new int[4];
+        int size;
+
+        Postings(int key) {
+            this.key = key;
+        }
+
+        void append(int doc) {
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+        }
+
+        void insert(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i >= 0) return;
+            i = -i - 1;
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            System.arraycopy(docs, i, docs, i + 1, size - i);
+            docs[i] = doc;
+            size++;
+        }
+
+        void delete(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i < 0) return;
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            size--;
+        }
+    }
+
+    private final Function<T, String> textOf;
+    private final IntIndex<Postings> postings = new IntIndex<>(p -> p.key);
+    private final Map<T, Integer> docOf = new IdentityHashMap<>();
+    private Object[] docs = new Object[MIN_CAPACITY];   // null = removed
+    private String[] texts = new String[MIN_CAPACITY];
+    private int docCount;
+
+    private List<T> indexed;
+    private int indexedSize = -1;
+
+    public TrigramIndex(Function<T, String> textOf) {
+        this.textOf = textOf;
+    }
+
+    // ========== SEARCH ==========
+
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> search(List<T> list, String term) {
+        index(list);
+        String needle = term.toLowerCase();
+        List<T> result = new ArrayList<>();
+        if (needle.length() < 3) {
+            for (int doc = 0; doc < docCount; doc++) {
+                if (docs[doc] != null && texts[doc].contains(needle)) result.add((T) docs[doc]);
+            }
+            return result;
+        }
+
+        int[] keys = trigrams(needle);
+        Postings[] lists = new Postings[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.get(keys[i]);
+            if (lists[i] == null) return result;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+
+        // Walk the shortest list, probing the others from where the last probe stopped
+        Postings first = lists[0];
+        int[] from = new int[lists.length];
+        candidates:
+        for (int i = 0; i < first.size; i++) {
+            int doc = first.docs[i];
+            for (int j = 1; j < lists.length; j++) {
+                Postings other = lists[j];
+                int at = Arrays.binarySearch(other.docs, from[j], other.size, doc);
+                if (at < 0) {
+                    from[j] = -at - 1;
+                    if (from[j] == other.size) break candidates;
+                    continue candidates;
+                }
+                from[j] = at + 1;
+            }
+            if (docs[doc] != null && texts[doc].contains(needle)) result.add((T) docs[doc]);
+        }
+        return result;
+    }
+
+    // ========== LIST TRACKING ==========
+
+    public synchronized void added(List<T> list, T value) {
+        if (indexed == list && indexedSize == list.size() - 1) {
+            add(value);
+            indexedSize++;
+        }
+    }
+
+    public synchronized void removed(List<T> list, T value) {
+        if (indexed != list || indexedSize != list.size() + 1) return;
+        indexedSize--;
+        Integer doc = docOf.remove(value);
+        if (doc == null) return;
+        for (int key : trigrams(texts[doc])) {
+            Postings p = postings.get(key);
+            if (p != null) p.delete(doc);
+        }
+        docs[doc] = null;
+        texts[doc] = null;
+    }
+
+    // The search text of value may have changed
+    public synchronized void updated(List<T> list, T value) {
+        if (indexed != list || indexedSize != list.size()) return;
+        Integer doc = docOf.get(value);
+        if (doc == null) {
+            indexed = null;
+            return;
+        }
+        retext(doc, value);
+    }
+
+    // For list.set(i, value): value takes over the place of old
+    public synchronized void replaced(List<T> list, T old, T value) {
+        Integer doc = indexed == list && indexedSize == list.size() ? docOf.remove(old) : null;
+        if (doc == null) {
+            indexed = null;
+            return;
+        }
+        docOf.put(value, doc);
+        docs[doc] = value;
+        retext(doc, value);
+    }
+
+    // Builds the index for list unless it is already current
+    public synchronized void index(List<T> list) {
+        if (indexed == list && indexedSize == list.size()) return;
+        postings.clear();
+        docOf.clear();
+        int capacity = Math.max(MIN_CAPACITY, list.size());
+        docs = new Object[capacity];
+        texts = new String[capacity];
+        docCount = 0;
+        for (T value : list) {
+            add(value);
+        }
+        indexed = list;
+        indexedSize = list.size();
+    }
+
+    private void add(T value) {
+        if (docOf.containsKey(value)) return;
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docCount * 2);
+            texts = Arrays.copyOf(texts, docCount * 2);
+        }
+        int doc = docCount++;
+        String text = text(value);
+        docs[doc] = value;
+        texts[doc] = text;
+        docOf.put(value, doc);
+        for (int key : trigrams(text)) {
+            Postings p = postings.get(key);
+            if (p == null) {
+                p = new Postings(key);
+                postings.put(key, p);
+            }
+            p.append(doc);
+        }
+    }
+
+    private void retext(int doc, T value) {
+        String text = text(value);
+        if (text.equals(texts[doc])) return;
+        int[] before = trigrams(texts[doc]);
+        int[] after = trigrams(text);
+        for (int key : before) {
+            if (Arrays.binarySearch(after, key) < 0) postings.get(key).delete(doc);
+        }
+        for (int key : after) {
+            if (Arrays.binarySearch(before, key) >= 0) continue;
+            Postings p = postings.get(key);
+            if (p == null) {
+                p = new Postings(key);
+                postings.put(key, p);
+            }
+            p.insert(doc);
+        }
+        texts[doc] = text;
+    }
+
+    private String text(T value) {
+        String text = textOf.apply(value);
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    // Sorted, distinct trigram keys of text, leaving out those spanning a separator
+    private static int[] trigrams(String text) {
+        int n = text.length() - 2;
+        if (n <= 0) return new int[0];
+        int[] keys = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            char a = text.charAt(i), b = text.charAt(i + 1), c = text.charAt(i + 2);
+            if (a == SEPARATOR || b == SEPARATOR || c == SEPARATOR) continue;
+            keys[count++] = key(a, b, c);
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) keys[distinct++] = keys[i];
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    // Exact for the first 1024 code points; anything else is hashed, which can
+    // only add candidates that the final contains() check drops
+    private static int key(char a, char b, char c) {
+        if ((a | b | c) < 1024) return a << 20 | b << 10 | c;
+        return (((a * 31 + b) * 31 + c) & 0x3FFFFFFF) | 0x40000000;
+    }
+}
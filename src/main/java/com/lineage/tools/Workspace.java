@@ -0,0 +1,172 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+// A whole datapack in memory: skills, items and skill trees. The three parts are
+// loaded at the same time on virtual threads, so opening a datapack costs about
+// as much as its slowest part. There is one workspace per application: every
+// editor window is a view on its managers (see ChangeBus), so opening another
+// window costs no memory and an edit in one shows up in the others.
+public class Workspace {
+
+    private static final Workspace SHARED = new Workspace();
+
+    // JAXBContext is expensive to build and thread-safe once built
+    private static final Map<Class<?>, JAXBContext> CONTEXTS = new ConcurrentHashMap<>();
+
+    // Where each part lives below the datapack root, first match wins.
+    // Folders are split datapacks.
+    private static final String[] SKILL_PATHS = {"stats/skills", "data/stats/skills", "skills", "skills.xml"};
+    private static final String[] ITEM_PATHS = {"stats/items", "data/stats/items", "items", "items.xml"};
+    private static final String[] SKILL_TREE_PATHS = {"skillTrees", "data/skillTrees", "skillTrees.xml", "skilltree.xml"};
+
+    @FunctionalInterface
+    private interface PartLoader<T> {
+        LoadResult<T> load(File source) throws Exception;
+    }
+
+    // What read() found, applied to the managers by apply(). A part the datapack
+    // does not have is null, and its manager keeps what it has. The three parts
+    // share one string pool, so a name like "power" is kept once for all of them.
+    public record Datapack(File root, LoadResult<Skill> skills, LoadResult<Item> items,
+                           LoadResult<SkillTreeClass> skillTrees, StringPool strings, long loadMillis) {}
+
+    private final SkillManager skills = new SkillManager();
+    private final ItemManager items = new ItemManager();
+    private final SkillTreeManager skillTrees = new SkillTreeManager();
+    private final SkillReferenceIndex references = new SkillReferenceIndex(items, skillTrees);
+    // Null until a datapack has been opened
+    private volatile File root;
+
+    private Workspace() {}
+
+    public static Workspace shared() { return SHARED; }
+
+    public File getRoot() { return root; }
+    public boolean hasDatapack() { return root != null; }
+    public SkillManager getSkills() { return skills; }
+    public ItemManager getItems() { return items; }
+    public SkillTreeManager getSkillTrees() { return skillTrees; }
+    public SkillReferenceIndex getReferences() { return references; }
+
+    public static JAXBContext jaxbContext(Class<?> type) throws JAXBException {
+        JAXBContext context = CONTEXTS.get(type);
+        if (context == null) {
+            context = JAXBContext.newInstance(type);
+            JAXBContext raced = CONTEXTS.putIfAbsent(type, context);
+            if (raced != null) context = raced;
+        }
+        return context;
+    }
+
+    // Background half of opening a datapack: blocks until all parts are read,
+    // without touching the managers. Run it off the EDT.
+    public Datapack read(File root) throws Exception {
+        long start = System.nanoTime();
+
+        File skillSource = find(root, SKILL_PATHS);
+        File itemSource = find(root, ITEM_PATHS);
+        File treeSource = find(root, SKILL_TREE_PATHS);
+        if (skillSource == null && itemSource == null && treeSource == null) {
+            throw new FileNotFoundException("No skills, items or skill trees found in " + root);
+        }
+
+        StringPool strings = new StringPool();
+        LoadResult<Skill> skillResult = null;
+        LoadResult<Item> itemResult = null;
+        LoadResult<SkillTreeClass> treeResult = null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<LoadResult<Skill>> skillLoad = submit(executor, skillSource,
+                f -> f.isDirectory() ? skills.readDirectory(f, null, LoadMonitor.NONE, strings) : skills.readFile(f, null, LoadMonitor.NONE, strings));
+            Future<LoadResult<Item>> itemLoad = submit(executor, itemSource,
+                f -> f.isDirectory() ? items.readDirectory(f, null, LoadMonitor.NONE, strings) : items.readFile(f, null, LoadMonitor.NONE, strings));
+            Future<LoadResult<SkillTreeClass>> treeLoad = submit(executor, treeSource,
+                f -> f.isDirectory() ? skillTrees.readDirectory(f, null, LoadMonitor.NONE, strings) : skillTrees.readFile(f, null, LoadMonitor.NONE, strings));
+            List<Future<?>> all = Arrays.asList(skillLoad, itemLoad, treeLoad);
+
+            try {
+                if (skillLoad != null) skillResult = await(skillLoad, skillSource);
+                if (itemLoad != null) itemResult = await(itemLoad, itemSource);
+                if (treeLoad != null) treeResult = await(treeLoad, treeSource);
+            } catch (Exception e) {
+                for (Future<?> future : all) {
+                    if (future != null) future.cancel(true);
+                }
+                throw e;
+            }
+        }
+
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Loaded datapack " + root + " in " + loadMillis + " ms: "
+            + count(skillResult) + " skills, " + count(itemResult) + " items, "
+            + count(treeResult) + " skill trees");
+        return new Datapack(root, skillResult, itemResult, treeResult, strings, loadMillis);
+    }
+
+    // EDT half: the open windows hear about it through the managers' change buses
+    public void apply(Datapack datapack) {
+        if (datapack.skills() != null) skills.applyLoad(datapack.skills());
+        if (datapack.items() != null) items.applyLoad(datapack.items());
+        if (datapack.skillTrees() != null) skillTrees.applyLoad(datapack.skillTrees());
+        root = datapack.root();
+        System.out.println(datapack.strings().report());
+    }
+
+    private static int count(LoadResult<?> result) {
+        return result != null ? result.getEntries().size() : 0;
+    }
+
+    private static File find(File root, String[] candidates) {
+        for (String path : candidates) {
+            File file = new File(root, path);
+            if (file.exists()) return file;
+        }
+        return null;
+    }
+
+    private static <T> Future<LoadResult<T>> submit(ExecutorService executor, File source, PartLoader<T> loader) {
+        return source == null ? null : executor.submit(() -> loader.load(source));
+    }
+
+    private static <T> LoadResult<T> await(Future<LoadResult<T>> future, File source) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IOException(source.getName() + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+Copyright (c) 2026 Stayway
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.lineage.tools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Streaming UTF-8 XML output with the same layout as the JAXB marshaller with
+// JAXB_FORMATTED_OUTPUT: standalone="yes" header, 4-space indent, "/>" for
+// empty elements, text content kept on the line of its element, and the same
+// escaping. Strings are encoded straight into one large buffer that is written
+// to the channel when it fills up.
+public class XmlOutput implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final byte[] HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+        .getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel channel;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer wrapper = ByteBuffer.wrap(buffer);
+    private int position;
+    private long written;
+
+    private final byte[] newline;
+    private final byte[] indent;
+    private String[] openElements = new String[16];
+    private int depth;
+    private boolean startTagOpen;
+    private boolean textWritten;
+
+    public XmlOutput(WritableByteChannel channel) {
+        this(channel, "\n", "    ", 0);
+    }
+
+    // For fragments spliced into an existing document: elements start at the
+    // given depth and use that document's line separator and indent unit
+    public XmlOutput(WritableByteChannel channel, String newline, String indent, int depth) {
+        this.channel = channel;
+        this.newline = newline.getBytes(StandardCharsets.UTF_8);
+        this.indent = indent.getBytes(StandardCharsets.UTF_8);
+        this.depth = depth;
+    }
+
+    // Bytes handed to the channel so far, including what is still buffered
+    public long getBytesWritten() { return written + position; }
+
+    public void startDocument() throws IOException {
+        write(HEADER);
+    }
+
+    public void endDocument() throws IOException {
+        write(newline);
+        flush();
+    }
+
+    public XmlOutput start(String name) throws IOException {
+        closeStartTag();
+        if (!textWritten) indent();
+        if (depth >= openElements.length) {
+            openElements = Arrays.copyOf(openElements, depth * 2);
+        }
+        openElements[depth++] = name;
+        textWritten = false;
+        write('<');
+        writeAscii(name);
+        startTagOpen = true;
+        return this;
+    }
+
+    // Null values are left out, like JAXB does
+    public XmlOutput attr(String name, String value) throws IOException {
+        if (value == null) return this;
+        write(' ');
+        writeAscii(name);
+        write('=');
+        write('"');
+        writeEscaped(value, true);
+        write('"');
+        return this;
+    }
+
+    public XmlOutput attr(String name, int value) throws IOException {
+        write(' ');
+        writeAscii(name);
+        write('=');
+        write('"');
+        writeAscii(Integer.toString(value));
+        write('"');
+        return this;
+    }
+
+    public XmlOutput attr(String name, boolean value) throws IOException {
+        return attr(name, value ? "true" : "false");
+    }
+
+    public XmlOutput text(String value) throws IOException {
+        if (value == null) return this;
+        closeStartTag();
+        writeEscaped(value, false);
+        textWritten = true;
+        return this;
+    }
+
+    public XmlOutput end() throws IOException {
+        String name = openElements[--depth];
+        if (startTagOpen) {
+            write('/');
+            write('>');
+            startTagOpen = false;
+        } else {
+            if (!textWritten) indent();
+            write('<');
+            write('/');
+            writeAscii(name);
+            write('>');
+        }
+        textWritten = false;
+        return this;
+    }
+
+    // A complete element kept verbatim from the source (lazy load), UTF-8
+    public XmlOutput raw(byte[] element) throws IOException {
+        closeStartTag();
+        if (!textWritten) indent();
+        textWritten = false;
+        write(element, 0, element.length);
+        return this;
+    }
+
+    private void closeStartTag() throws IOException {
+        if (startTagOpen) {
+            write('>');
+            startTagOpen = false;
+        }
+    }
+
+    private void indent() throws IOException {
+        write(newline);
+        for (int i = 0; i < depth; i++) {
+            write(indent);
+        }
+    }
+
+    // ========== ENCODING ==========
+
+    private void writeEscaped(String value, boolean attribute) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> writeAscii("&amp;");
+                case '<' -> writeAscii("&lt;");
+                case '>' -> writeAscii("&gt;");
+                case '\r' -> writeAscii("&#xD;");
+                case '"' -> {
+                    if (attribute) writeAscii("&quot;");
+                    else write(c);
+                }
+                case '\n' -> {
+                    if (attribute) writeAscii("&#xA;");
+                    else write(c);
+                }
+                default -> {
+                    if (c < 0x80) {
+                        write(c);
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        writeCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+                    } else {
+                        writeCodePoint(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeCodePoint(int cp) throws IOException {
+        ensure(4);
+        if (cp < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (cp >> 6));
+        } else if (cp < 0x10000) {
+            buffer[position++] = (byte) (0xE0 | (cp >> 12));
+            buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        } else {
+            buffer[position++] = (byte) (0xF0 | (cp >> 18));
+            buffer[position++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        }
+        buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+    }
+
+    private void writeAscii(String value) throws IOException {
+        int length = value.length();
+        if (length > buffer.length) {
+            for (int i = 0; i < length; i++) write(value.charAt(i));
+            return;
+        }
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void write(char c) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) c;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            ensure(1);
+            int n = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, n);
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > buffer.length) flush();
+    }
+
+    public void flush() throws IOException {
+        wrapper.clear().limit(position);
+        while (wrapper.hasRemaining()) {
+            channel.write(wrapper);
+        }
+        written += position;
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}